@@ -0,0 +1,192 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.benchmark;
+
+import dev.waterdog.waterdogpe.network.PacketDirection;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.BedrockBatchDecoder;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.BedrockBatchEncoder;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.ProxiedCompressionCodec;
+import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec;
+import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec_v3;
+import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionCodec;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.SimpleCompressionStrategy;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.ZlibCompression;
+import org.cloudburstmc.protocol.common.util.Zlib;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays batches through the proxy codec handlers inside {@link EmbeddedChannel}s.
+ * One operation is one batch, so running with {@code -prof gc} reports bytes allocated per batch
+ * as {@code gc.alloc.rate.norm}.
+ * <p>
+ * Run with: {@code java -jar benchmarks/target/benchmarks.jar BatchCodecBenchmark -prof gc}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchCodecBenchmark {
+
+    @Param({"MOVEMENT", "CHUNK", "CHAT"})
+    public BatchSamples profile;
+
+    /**
+     * Optional path to a file written by {@link BatchRecording}. Overrides the synthetic profile.
+     */
+    @Param({""})
+    public String recording;
+
+    @Param({"6"})
+    public int compressionLevel;
+
+    private BedrockCodec codec;
+    private BedrockCodecHelper helper;
+    private CompressionStrategy strategy;
+
+    private EmbeddedChannel inbound;
+    private EmbeddedChannel outbound;
+
+    private final List<ByteBuf> compressedBatches = new ArrayList<>();
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.codec = ProtocolVersion.latest().getDefaultCodec();
+        this.helper = this.codec.createHelper();
+
+        ZlibCompression compression = new ZlibCompression(Zlib.RAW);
+        compression.setLevel(this.compressionLevel);
+        this.strategy = new SimpleCompressionStrategy(compression);
+
+        this.inbound = this.createChannel(PacketDirection.FROM_SERVER);
+        this.outbound = this.createChannel(PacketDirection.FROM_USER);
+
+        List<byte[]> batches = this.recording.isEmpty() ? this.profile.createBatches(this.codec) : BatchRecording.read(Path.of(this.recording));
+        for (byte[] batch : batches) {
+            // Compress through the same codec so the prefix and algorithm match what peers send us
+            this.outbound.writeOutbound(BedrockBatchWrapper.newInstance(null, Unpooled.directBuffer(batch.length).writeBytes(batch)));
+
+            BedrockBatchWrapper compressed = this.outbound.readOutbound();
+            try {
+                this.compressedBatches.add(compressed.getCompressed().retain());
+            } finally {
+                compressed.release();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.compressedBatches.forEach(ByteBuf::release);
+        this.compressedBatches.clear();
+        this.inbound.finishAndReleaseAll();
+        this.outbound.finishAndReleaseAll();
+    }
+
+    private EmbeddedChannel createChannel(PacketDirection direction) {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.attr(PacketDirection.ATTRIBUTE).set(direction);
+        channel.pipeline()
+                .addLast(CompressionCodec.NAME, new ProxiedCompressionCodec(this.strategy, true))
+                .addLast(BedrockBatchDecoder.NAME, new BedrockBatchDecoder())
+                .addLast(BedrockBatchEncoder.NAME, new BedrockBatchEncoder())
+                .addLast(BedrockPacketCodec.NAME, new BedrockPacketCodec_v3().setCodecHelper(this.codec, this.helper));
+        return channel;
+    }
+
+    private BedrockBatchWrapper readBatch() {
+        ByteBuf compressed = this.compressedBatches.get(this.index++ % this.compressedBatches.size());
+        this.inbound.writeInbound(BedrockBatchWrapper.newInstance(compressed.retainedDuplicate(), null));
+        return this.inbound.readInbound();
+    }
+
+    private void decodePackets(BedrockBatchWrapper batch) {
+        for (BedrockPacketWrapper packet : batch.getPackets()) {
+            ByteBuf buffer = packet.getPacketBuffer().slice();
+            buffer.skipBytes(packet.getHeaderLength());
+            packet.setPacket(this.codec.tryDecode(this.helper, buffer, packet.getPacketId()));
+        }
+    }
+
+    /**
+     * Decompression, batch splitting and header decoding only.
+     */
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        BedrockBatchWrapper batch = this.readBatch();
+        blackhole.consume(batch.getPackets().size());
+        batch.release();
+    }
+
+    /**
+     * Same as {@link #decode(Blackhole)}, but every packet is fully decoded like ProxyBatchBridge does.
+     */
+    @Benchmark
+    public void decodePackets(Blackhole blackhole) {
+        BedrockBatchWrapper batch = this.readBatch();
+        this.decodePackets(batch);
+        blackhole.consume(batch.getPackets().size());
+        batch.release();
+    }
+
+    /**
+     * Batch is relayed to the other connection without being modified.
+     */
+    @Benchmark
+    public void forward(Blackhole blackhole) {
+        this.outbound.writeOutbound(this.readBatch());
+        BedrockBatchWrapper batch = this.outbound.readOutbound();
+        blackhole.consume(batch.getCompressed());
+        batch.release();
+    }
+
+    /**
+     * Batch is decoded, marked as modified and fully encoded and compressed again.
+     */
+    @Benchmark
+    public void reencode(Blackhole blackhole) {
+        BedrockBatchWrapper batch = this.readBatch();
+        this.decodePackets(batch);
+        for (BedrockPacketWrapper packet : batch.getPackets()) {
+            ReferenceCountUtil.release(packet.getPacketBuffer());
+            packet.setPacketBuffer(null);
+        }
+        batch.modify();
+
+        this.outbound.writeOutbound(batch);
+        BedrockBatchWrapper encoded = this.outbound.readOutbound();
+        blackhole.consume(encoded.getCompressed());
+        encoded.release();
+    }
+}
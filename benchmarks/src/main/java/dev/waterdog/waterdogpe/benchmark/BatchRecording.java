@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.benchmark;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simple on-disk format for captured batches.
+ * Each entry is a big-endian int length followed by the uncompressed batch payload
+ * (varint length prefixed packets, exactly as seen by BedrockBatchDecoder).
+ * Recordings are captured by the proxy BatchRecorder when started with -DrecordBatches=&lt;directory&gt;.
+ */
+public final class BatchRecording {
+
+    private BatchRecording() {
+    }
+
+    public static List<byte[]> read(Path path) throws IOException {
+        List<byte[]> batches = new ArrayList<>();
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (stream.available() > 0) {
+                int length = stream.readInt();
+                byte[] batch = new byte[length];
+                stream.readFully(batch);
+                batches.add(batch);
+            }
+        }
+        return batches;
+    }
+
+    public static void write(Path path, List<byte[]> batches) throws IOException {
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (byte[] batch : batches) {
+                stream.writeInt(batch.length);
+                stream.write(batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.math.vector.Vector3f;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
+import org.cloudburstmc.protocol.bedrock.packet.*;
+import org.cloudburstmc.protocol.common.util.VarInts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic batches shaped like the traffic we see on production proxies.
+ * Used when no recording is supplied to the benchmarks.
+ */
+public enum BatchSamples {
+    MOVEMENT {
+        @Override
+        protected void fill(Random random, List<BedrockPacket> packets) {
+            for (int i = 0; i < 48; i++) {
+                long runtimeId = 1 + random.nextInt(400);
+                switch (i % 3) {
+                    case 0 -> {
+                        MoveEntityDeltaPacket packet = new MoveEntityDeltaPacket();
+                        packet.setRuntimeEntityId(runtimeId);
+                        packet.getFlags().add(MoveEntityDeltaPacket.Flag.HAS_X);
+                        packet.getFlags().add(MoveEntityDeltaPacket.Flag.HAS_Z);
+                        packet.getFlags().add(MoveEntityDeltaPacket.Flag.HAS_YAW);
+                        packet.setX(random.nextFloat() * 256);
+                        packet.setZ(random.nextFloat() * 256);
+                        packet.setYaw(random.nextFloat() * 360);
+                        packets.add(packet);
+                    }
+                    case 1 -> {
+                        MoveEntityAbsolutePacket packet = new MoveEntityAbsolutePacket();
+                        packet.setRuntimeEntityId(runtimeId);
+                        packet.setPosition(Vector3f.from(random.nextFloat() * 256, 64, random.nextFloat() * 256));
+                        packet.setRotation(Vector3f.from(0, random.nextFloat() * 360, 0));
+                        packets.add(packet);
+                    }
+                    default -> {
+                        SetEntityMotionPacket packet = new SetEntityMotionPacket();
+                        packet.setRuntimeEntityId(runtimeId);
+                        packet.setMotion(Vector3f.from(random.nextFloat(), 0, random.nextFloat()));
+                        packets.add(packet);
+                    }
+                }
+            }
+        }
+    },
+    CHUNK {
+        @Override
+        protected void fill(Random random, List<BedrockPacket> packets) {
+            for (int i = 0; i < 4; i++) {
+                // Chunk data is repetitive, keep alphabet small so zlib behaves like on real chunks
+                byte[] data = new byte[12 * 1024];
+                for (int j = 0; j < data.length; j++) {
+                    data[j] = (byte) random.nextInt(12);
+                }
+
+                LevelChunkPacket packet = new LevelChunkPacket();
+                packet.setChunkX(random.nextInt(64));
+                packet.setChunkZ(random.nextInt(64));
+                packet.setSubChunksLength(8);
+                packet.setData(Unpooled.wrappedBuffer(data));
+                packets.add(packet);
+            }
+        }
+    },
+    CHAT {
+        @Override
+        protected void fill(Random random, List<BedrockPacket> packets) {
+            for (int i = 0; i < 12; i++) {
+                TextPacket packet = new TextPacket();
+                packet.setType(TextPacket.Type.CHAT);
+                packet.setSourceName("Player" + random.nextInt(2000));
+                packet.setMessage("Message number " + i + " with some padding text " + random.nextLong());
+                packet.setXuid("");
+                packet.setPlatformChatId("");
+                packets.add(packet);
+            }
+        }
+    };
+
+    private static final int BATCH_COUNT = 64;
+
+    protected abstract void fill(Random random, List<BedrockPacket> packets);
+
+    /**
+     * Creates uncompressed batch payloads in the same layout as produced by BedrockBatchEncoder.
+     */
+    public List<byte[]> createBatches(BedrockCodec codec) {
+        BedrockCodecHelper helper = codec.createHelper();
+        Random random = new Random(this.ordinal());
+
+        List<byte[]> batches = new ArrayList<>(BATCH_COUNT);
+        for (int i = 0; i < BATCH_COUNT; i++) {
+            List<BedrockPacket> packets = new ArrayList<>();
+            this.fill(random, packets);
+
+            ByteBuf batch = Unpooled.buffer();
+            ByteBuf packetBuf = Unpooled.buffer();
+            try {
+                for (BedrockPacket packet : packets) {
+                    packetBuf.clear();
+                    VarInts.writeUnsignedInt(packetBuf, codec.getPacketDefinition(packet.getClass()).getId() & 0x3ff);
+                    codec.tryEncode(helper, packetBuf, packet);
+
+                    VarInts.writeUnsignedInt(batch, packetBuf.readableBytes());
+                    batch.writeBytes(packetBuf);
+                }
+                batches.add(ByteBufUtil.getBytes(batch));
+            } finally {
+                batch.release();
+                packetBuf.release();
+            }
+        }
+        return batches;
+    }
+}
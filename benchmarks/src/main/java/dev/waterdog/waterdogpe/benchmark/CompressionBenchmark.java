@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.benchmark;
+
+import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.NativeZlibCompression;
+import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.ZlibCompression;
+import org.cloudburstmc.protocol.common.util.Zlib;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares zlib implementations on raw batch payloads, without the rest of the codec pipeline.
+ * One operation is one batch.
+ * <p>
+ * Run with: {@code java -jar benchmarks/target/benchmarks.jar CompressionBenchmark -prof gc}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"MOVEMENT", "CHUNK", "CHAT"})
+    public BatchSamples profile;
+
+    /**
+     * Optional path to a file written by {@link BatchRecording}. Overrides the synthetic profile.
+     */
+    @Param({""})
+    public String recording;
+
+    @Param({"JDK", "NATIVE"})
+    public String implementation;
+
+    /**
+     * Optional path to a dictionary written by {@link DictionaryTrainer}, used by the DICTIONARY implementation.
+     */
+    @Param({""})
+    public String dictionary;
+
+    @Param({"1", "6"})
+    public int compressionLevel;
+
+    private EmbeddedChannel channel;
+    private ChannelHandlerContext ctx;
+    private BatchCompression compression;
+
+    private final List<ByteBuf> batches = new ArrayList<>();
+    private final List<ByteBuf> compressedBatches = new ArrayList<>();
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        this.ctx = this.channel.pipeline().firstContext();
+
+        this.compression = switch (this.implementation) {
+            case "NATIVE" -> new NativeZlibCompression(true);
+            case "DICTIONARY" -> new NativeZlibCompression(true, CompressionType.ZLIB_DICTIONARY, Files.readAllBytes(Path.of(this.dictionary)));
+            default -> new ZlibCompression(Zlib.RAW);
+        };
+        this.compression.setLevel(this.compressionLevel);
+
+        List<byte[]> batches = this.recording.isEmpty() ?
+                this.profile.createBatches(ProtocolVersion.latest().getDefaultCodec()) : BatchRecording.read(Path.of(this.recording));
+        for (byte[] batch : batches) {
+            ByteBuf buffer = Unpooled.directBuffer(batch.length).writeBytes(batch);
+            this.batches.add(buffer);
+            this.compressedBatches.add(this.compression.encode(this.ctx, buffer.duplicate()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.batches.forEach(ByteBuf::release);
+        this.compressedBatches.forEach(ByteBuf::release);
+        this.batches.clear();
+        this.compressedBatches.clear();
+        this.channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public void compress(Blackhole blackhole) throws Exception {
+        ByteBuf batch = this.batches.get(this.index++ % this.batches.size());
+        ByteBuf compressed = this.compression.encode(this.ctx, batch.duplicate());
+        blackhole.consume(compressed.readableBytes());
+        compressed.release();
+    }
+
+    @Benchmark
+    public void decompress(Blackhole blackhole) throws Exception {
+        ByteBuf batch = this.compressedBatches.get(this.index++ % this.compressedBatches.size());
+        ByteBuf decompressed = this.compression.decode(this.ctx, batch.duplicate());
+        blackhole.consume(decompressed.readableBytes());
+        decompressed.release();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.benchmark;
+
+import dev.waterdog.waterdogpe.network.connection.codec.compression.NativeZlibCompression;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Builds a preset deflate dictionary for {@code zlib_dictionary} compression from recorded batches.
+ * <p>
+ * Every batch is split into segments which are scored by how many batches contain their 8-byte substrings.
+ * Best segments are picked greedily while substrings already covered by the dictionary are not counted again.
+ * Segments are written in ascending order of score, because deflate encodes references to the end of the dictionary
+ * using shorter distances.
+ * <p>
+ * Run with: {@code java -cp benchmarks/target/benchmarks.jar dev.waterdog.waterdogpe.benchmark.DictionaryTrainer <output> <recording>...}
+ */
+public final class DictionaryTrainer {
+    private static final int GRAM_SIZE = 8;
+    private static final int SEGMENT_SIZE = 64;
+
+    private DictionaryTrainer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: DictionaryTrainer <output> <recording>...");
+            return;
+        }
+
+        List<byte[]> batches = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            batches.addAll(BatchRecording.read(Path.of(args[i])));
+        }
+
+        byte[] dictionary = train(batches, NativeZlibCompression.MAX_DICTIONARY_SIZE);
+        Files.write(Path.of(args[0]), dictionary);
+
+        CRC32 crc = new CRC32();
+        crc.update(dictionary);
+        System.out.println("Trained " + dictionary.length + " bytes dictionary from " + batches.size() + " batches");
+        System.out.println(String.format("Dictionary crc32: %08x", crc.getValue()));
+        System.out.println("Compressed size without dictionary: " + compressedSize(batches, null));
+        System.out.println("Compressed size with dictionary: " + compressedSize(batches, dictionary));
+    }
+
+    public static byte[] train(List<byte[]> batches, int maxSize) {
+        // Number of batches containing each gram
+        Long2IntMap frequencies = new Long2IntOpenHashMap();
+        LongSet batchGrams = new LongOpenHashSet();
+        for (byte[] batch : batches) {
+            batchGrams.clear();
+            for (int i = 0; i + GRAM_SIZE <= batch.length; i++) {
+                batchGrams.add(gram(batch, i));
+            }
+            for (long gram : batchGrams) {
+                frequencies.mergeInt(gram, 1, Integer::sum);
+            }
+        }
+
+        List<Segment> candidates = new ArrayList<>();
+        for (byte[] batch : batches) {
+            for (int offset = 0; offset + SEGMENT_SIZE <= batch.length; offset += SEGMENT_SIZE / 2) {
+                candidates.add(new Segment(batch, offset, score(batch, offset, frequencies)));
+            }
+        }
+        candidates.sort(Comparator.comparingLong(Segment::score).reversed());
+
+        List<Segment> selected = new ArrayList<>();
+        int size = 0;
+        for (Segment segment : candidates) {
+            if (size + SEGMENT_SIZE > maxSize) {
+                break;
+            }
+
+            // Score may be lower now as some grams were already covered by selected segments
+            long score = score(segment.batch(), segment.offset(), frequencies);
+            if (score <= 1 || score < segment.score() / 2) {
+                continue;
+            }
+
+            selected.add(new Segment(segment.batch(), segment.offset(), score));
+            for (int i = segment.offset(); i + GRAM_SIZE <= segment.offset() + SEGMENT_SIZE; i++) {
+                frequencies.put(gram(segment.batch(), i), 0);
+            }
+            size += SEGMENT_SIZE;
+        }
+
+        selected.sort(Comparator.comparingLong(Segment::score));
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream(size);
+        for (Segment segment : selected) {
+            dictionary.write(segment.batch(), segment.offset(), SEGMENT_SIZE);
+        }
+        return dictionary.toByteArray();
+    }
+
+    private static long score(byte[] batch, int offset, Long2IntMap frequencies) {
+        long score = 0;
+        for (int i = offset; i + GRAM_SIZE <= offset + SEGMENT_SIZE; i++) {
+            score += frequencies.get(gram(batch, i));
+        }
+        return score;
+    }
+
+    private static long gram(byte[] data, int offset) {
+        long gram = 0;
+        for (int i = 0; i < GRAM_SIZE; i++) {
+            gram = (gram << 8) | (data[offset + i] & 0xff);
+        }
+        return gram;
+    }
+
+    private static long compressedSize(List<byte[]> batches, byte[] dictionary) {
+        Deflater deflater = new Deflater(6, true);
+        byte[] buffer = new byte[64 * 1024];
+        long size = 0;
+        try {
+            for (byte[] batch : batches) {
+                deflater.reset();
+                if (dictionary != null) {
+                    deflater.setDictionary(dictionary);
+                }
+                deflater.setInput(batch);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    size += deflater.deflate(buffer);
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        return size;
+    }
+
+    private record Segment(byte[] batch, int offset, long score) {
+    }
+}
@@ -23,8 +23,11 @@ import dev.waterdog.waterdogpe.event.defaults.DispatchCommandEvent;
 import dev.waterdog.waterdogpe.event.defaults.ProxyStartEvent;
 import dev.waterdog.waterdogpe.logger.MainLogger;
 import dev.waterdog.waterdogpe.network.EventLoops;
+import dev.waterdog.waterdogpe.network.ListenerShard;
 import dev.waterdog.waterdogpe.network.NetworkMetrics;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionOffload;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.NativeZlibCompression;
 import dev.waterdog.waterdogpe.network.connection.codec.initializer.OfflineServerChannelInitializer;
 import dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedServerSessionInitializer;
 import dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedSessionInitializer;
@@ -36,6 +39,7 @@ import dev.waterdog.waterdogpe.network.connection.handler.IReconnectHandler;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolCodecs;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
 import dev.waterdog.waterdogpe.network.protocol.updaters.CodecUpdaterCommands;
+import dev.waterdog.waterdogpe.network.protocol.user.LoginVerifier;
 import dev.waterdog.waterdogpe.network.serverinfo.ServerInfo;
 import dev.waterdog.waterdogpe.network.serverinfo.ServerInfoMap;
 import dev.waterdog.waterdogpe.packs.PackManager;
@@ -45,6 +49,7 @@ import dev.waterdog.waterdogpe.plugin.PluginManager;
 import dev.waterdog.waterdogpe.scheduler.WaterdogScheduler;
 import dev.waterdog.waterdogpe.security.SecurityManager;
 import dev.waterdog.waterdogpe.utils.ConfigurationManager;
+import dev.waterdog.waterdogpe.utils.CpuAffinity;
 import dev.waterdog.waterdogpe.utils.ThreadFactoryBuilder;
 import dev.waterdog.waterdogpe.utils.bstats.Metrics;
 import dev.waterdog.waterdogpe.utils.config.LangConfig;
@@ -63,13 +68,17 @@ import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.cubespace.Yamler.Config.InvalidConfigurationException;
 import org.cloudburstmc.netty.channel.raknet.RakChannelFactory;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
 import org.cloudburstmc.protocol.common.util.Preconditions;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.zip.CRC32;
 
 public class ProxyServer {
     private static ProxyServer instance;
@@ -92,6 +101,7 @@ public class ProxyServer {
 
     private final long serverId;
     private final List<Channel> serverChannels = new ObjectArrayList<>();
+    private final List<ListenerShard> listenerShards = new ObjectArrayList<>();
 
     private QueryHandler queryHandler;
 
@@ -108,6 +118,9 @@ public class ProxyServer {
     private final EventLoopGroup bossEventLoopGroup;
     private final EventLoopGroup workerEventLoopGroup;
     private final ScheduledExecutorService tickExecutor;
+    private final LoginVerifier loginVerifier;
+    private final CompressionOffload compressionOffload;
+    private final BatchCompression dictionaryCompression;
     private ScheduledFuture<?> tickFuture;
     private volatile boolean shutdown = false;
     private int currentTick = 0;
@@ -158,6 +171,9 @@ public class ProxyServer {
                 .format("WaterdogTick Executor - #%d")
                 .build();
         this.tickExecutor = Executors.newScheduledThreadPool(1, builder);
+        this.loginVerifier = new LoginVerifier(this.getNetworkSettings());
+        this.compressionOffload = CompressionOffload.create(this.getNetworkSettings());
+        this.dictionaryCompression = this.loadDictionaryCompression();
 
         EventLoops.ChannelType channelType = EventLoops.getChannelType();
         this.logger.info("Using " + channelType.name() + " channel implementation as default!");
@@ -165,18 +181,25 @@ public class ProxyServer {
             this.logger.debug("Supported " + type.name() + " channels: " + type.isAvailable());
         }
 
+        NetworkSettings networkSettings = this.getNetworkSettings();
+        if (networkSettings.cpuAffinity() && !CpuAffinity.isAvailable()) {
+            this.logger.warn("CPU affinity is enabled, but Java-Thread-Affinity library was not found. Threads will not be pinned!");
+        }
+
         ThreadFactoryBuilder workerFactory = ThreadFactoryBuilder.builder()
                 .format("Bedrock Listener - #%d")
                 .priority(5)
                 .daemon(true)
+                .cpuAffinity(networkSettings.cpuAffinity())
                 .build();
         ThreadFactoryBuilder bossFactory = ThreadFactoryBuilder.builder()
                 .format("RakNet Listener - #%d")
                 .priority(8)
                 .daemon(true)
+                .cpuAffinity(networkSettings.cpuAffinity())
                 .build();
-        this.workerEventLoopGroup = channelType.newEventLoopGroup(0, workerFactory);
-        this.bossEventLoopGroup = channelType.newEventLoopGroup(0, bossFactory);
+        this.workerEventLoopGroup = channelType.newEventLoopGroup(Math.max(0, networkSettings.getWorkerThreads()), workerFactory);
+        this.bossEventLoopGroup = channelType.newEventLoopGroup(Math.max(0, networkSettings.getBossThreads()), bossFactory);
 
         // Default Handlers
         this.forcedHostHandler = new DefaultForcedHostHandler();
@@ -246,22 +269,62 @@ public class ProxyServer {
 
         this.logger.debug("Upstream <-> Proxy compression level " + this.getConfiguration().getUpstreamCompression());
         this.logger.debug("Downstream <-> Proxy compression level " + this.getConfiguration().getDownstreamCompression());
+        this.logger.debug("Native zlib compression: " + ProxiedSessionInitializer.NATIVE_ZLIB);
         this.logger.debug("MTU Settings: max_user=" + this.getNetworkSettings().getMaximumMtu() + " max_server=" + this.getNetworkSettings().getMaximumDownstreamMtu());
 
         ProxiedSessionInitializer.ZLIB_RAW_STRATEGY.getDefaultCompression().setLevel(this.getConfiguration().getUpstreamCompression());
         ProxiedSessionInitializer.ZLIB_STRATEGY.getDefaultCompression().setLevel(this.getConfiguration().getUpstreamCompression());
-        // TODO: support downstream compression level too
+        ProxiedSessionInitializer.DOWNSTREAM_ZLIB_RAW_STRATEGY.getDefaultCompression().setLevel(this.getConfiguration().getDownstreamCompression());
+        ProxiedSessionInitializer.DOWNSTREAM_ZLIB_STRATEGY.getDefaultCompression().setLevel(this.getConfiguration().getDownstreamCompression());
+        if (this.dictionaryCompression != null) {
+            this.dictionaryCompression.setLevel(this.getConfiguration().getDownstreamCompression());
+        }
+        for (ServerInfo serverInfo : this.serverInfoMap.values()) {
+            this.checkDictionaryCompression(serverInfo);
+        }
 
         Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
         this.tickFuture = this.tickExecutor.scheduleAtFixedRate(this::tickProcessor, 50, 50, TimeUnit.MILLISECONDS);
     }
 
+    private BatchCompression loadDictionaryCompression() {
+        Path path = this.dataPath.resolve(this.getNetworkSettings().getCompressionDictionary());
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try {
+            byte[] dictionary = Files.readAllBytes(path);
+            CRC32 crc = new CRC32();
+            crc.update(dictionary);
+            // Servers must use exactly the same dictionary, fingerprint allows to compare it with the server side
+            this.logger.info(String.format("Loaded compression dictionary %s (%d bytes, crc32 %08x)", path.getFileName(), dictionary.length, crc.getValue()));
+            return new NativeZlibCompression(true, CompressionType.ZLIB_DICTIONARY, dictionary);
+        } catch (IOException e) {
+            this.logger.error("Unable to load compression dictionary " + path, e);
+            return null;
+        }
+    }
+
+    private void checkDictionaryCompression(ServerInfo serverInfo) {
+        if (serverInfo.isDictionaryCompression() && this.dictionaryCompression == null) {
+            this.logger.warn("Server " + serverInfo.getServerName() + " has dictionary_compression enabled, but no compression dictionary was loaded from "
+                    + this.getNetworkSettings().getCompressionDictionary() + ". Default compression will be used!");
+        }
+    }
+
     private void bindChannels(InetSocketAddress address) {
         boolean allowEpoll = Epoll.isAvailable();
-        int bindCount = allowEpoll && EventLoops.getChannelType() != EventLoops.ChannelType.NIO
-                ? Runtime.getRuntime().availableProcessors() : 1;
+        int bindCount = 1;
+        if (allowEpoll && EventLoops.getChannelType() != EventLoops.ChannelType.NIO) {
+            int shards = this.getNetworkSettings().getListenerShards();
+            bindCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        } else if (this.getNetworkSettings().getListenerShards() > 1) {
+            this.logger.warn("Listener shards require epoll with SO_REUSEPORT, binding single listener on " + address);
+        }
 
         for (int i = 0; i < bindCount; i++) {
+            ListenerShard shard = new ListenerShard(this.listenerShards.size());
             ServerBootstrap bootstrap = new ServerBootstrap()
                     .channelFactory(RakChannelFactory.server(EventLoops.getChannelType().getDatagramChannel()))
                     .group(this.bossEventLoopGroup, this.workerEventLoopGroup)
@@ -272,7 +335,7 @@ public class ProxyServer {
                     .childOption(RakChannelOption.RAK_SESSION_TIMEOUT, 10000L)
                     .childOption(RakChannelOption.RAK_ORDERING_CHANNELS, 1)
                     .handler(new OfflineServerChannelInitializer(this))
-                    .childHandler(new ProxiedServerSessionInitializer(this));
+                    .childHandler(new ProxiedServerSessionInitializer(this, shard));
             if (allowEpoll) {
                 bootstrap.option(UnixChannelOption.SO_REUSEPORT, true);
             }
@@ -281,6 +344,8 @@ public class ProxyServer {
                     .syncUninterruptibly();
             if (future.isSuccess()) {
                 this.serverChannels.add(future.channel());
+                shard.setChannel(future.channel());
+                this.listenerShards.add(shard);
             } else {
                 throw new IllegalStateException("Can not start server on " + address, future.cause());
             }
@@ -332,6 +397,10 @@ public class ProxyServer {
 
         this.console.getConsoleThread().interrupt();
         this.tickExecutor.shutdown();
+        this.loginVerifier.shutdown();
+        if (this.compressionOffload != null) {
+            this.compressionOffload.shutdown();
+        }
         this.scheduler.shutdown();
         this.eventManager.getThreadedExecutor().shutdown();
 
@@ -456,7 +525,11 @@ public class ProxyServer {
      */
     public boolean registerServerInfo(ServerInfo serverInfo) {
         Preconditions.checkNotNull(serverInfo, "ServerInfo can not be null!");
-        return this.serverInfoMap.putIfAbsent(serverInfo.getServerName(), serverInfo) == null;
+        if (this.serverInfoMap.putIfAbsent(serverInfo.getServerName(), serverInfo) != null) {
+            return false;
+        }
+        this.checkDictionaryCompression(serverInfo);
+        return true;
     }
 
     /**
@@ -610,6 +683,28 @@ public class ProxyServer {
         return this.securityManager;
     }
 
+    public LoginVerifier getLoginVerifier() {
+        return this.loginVerifier;
+    }
+
+    /**
+     * @return listener channels with their connection and traffic counters
+     */
+    public List<ListenerShard> getListenerShards() {
+        return Collections.unmodifiableList(this.listenerShards);
+    }
+
+    public CompressionOffload getCompressionOffload() {
+        return this.compressionOffload;
+    }
+
+    /**
+     * @return compression using preset dictionary, or null if no dictionary was loaded
+     */
+    public BatchCompression getDictionaryCompression() {
+        return this.dictionaryCompression;
+    }
+
     public EventLoopGroup getWorkerEventLoopGroup() {
         return this.workerEventLoopGroup;
     }
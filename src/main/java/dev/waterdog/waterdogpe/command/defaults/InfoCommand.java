@@ -15,11 +15,17 @@
 
 package dev.waterdog.waterdogpe.command.defaults;
 
+import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.VersionInfo;
 import dev.waterdog.waterdogpe.WaterdogPE;
 import dev.waterdog.waterdogpe.command.Command;
 import dev.waterdog.waterdogpe.command.CommandSender;
 import dev.waterdog.waterdogpe.command.CommandSettings;
+import dev.waterdog.waterdogpe.network.ListenerShard;
+import dev.waterdog.waterdogpe.utils.MonitoredExecutor;
+
+import java.util.List;
+import java.util.Locale;
 
 public class InfoCommand extends Command {
 
@@ -40,6 +46,28 @@ public class InfoCommand extends Command {
                 "§3Branch: §b " + versionInfo.branchName() + "§3 CommitId:§b " + versionInfo.commitId() + "\n" +
                 "§3Author: §b" + versionInfo.author() + "\n" +
                 "§3Developer Mode: " + (versionInfo.debug() ? "§cenabled" : "§adisabled"));
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("shards")) {
+            StringBuilder builder = new StringBuilder("§3Listener shards:");
+            for (ListenerShard shard : ProxyServer.getInstance().getListenerShards()) {
+                builder.append("\n§b#").append(shard.getIndex())
+                        .append(" §3connections: §b").append(shard.getConnections())
+                        .append(" §3in: §b").append(shard.getPacketsIn()).append(" packets / ").append(shard.getBytesIn()).append(" bytes")
+                        .append(" §3out: §b").append(shard.getPacketsOut()).append(" packets / ").append(shard.getBytesOut()).append(" bytes");
+            }
+            sender.sendMessage(builder.toString());
+        } else if (args.length > 0 && args[0].equalsIgnoreCase("executors")) {
+            StringBuilder builder = new StringBuilder("§3Executors:");
+            for (MonitoredExecutor executor : List.of(ProxyServer.getInstance().getEventManager().getMonitoredExecutor(),
+                    ProxyServer.getInstance().getScheduler().getMonitoredExecutor())) {
+                builder.append("\n§b").append(executor.getName()).append(" §3(").append(executor.getMode().name().toLowerCase(Locale.ROOT)).append(")")
+                        .append(" §3active: §b").append(executor.getActiveCount())
+                        .append(" §3queued: §b").append(executor.getQueuedCount())
+                        .append(" §3completed: §b").append(executor.getCompletedCount())
+                        .append(" §3rejected: §b").append(executor.getRejectedCount());
+            }
+            sender.sendMessage(builder.toString());
+        }
         return true;
     }
 }
@@ -23,6 +23,7 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 
 /**
@@ -32,10 +33,18 @@ import java.util.function.Consumer;
  */
 public class EventHandler {
 
+    @SuppressWarnings("unchecked")
+    private static final Consumer<Event>[] EMPTY_HANDLERS = new Consumer[0];
+
     private final EventManager eventManager;
     private final Class<? extends Event> eventClass;
 
     private final Map<EventPriority, ArrayList<Consumer<Event>>> priority2handlers = new EnumMap<>(EventPriority.class);
+    /**
+     * Immutable snapshot of all handlers ordered by priority.
+     * Rebuilt and swapped on every (un)subscribe so dispatch can iterate without locking.
+     */
+    private volatile Consumer<Event>[] handlers = EMPTY_HANDLERS;
 
     public EventHandler(Class<? extends Event> eventClass, EventManager eventManager) {
         this.eventClass = eventClass;
@@ -52,12 +61,19 @@ public class EventHandler {
         }
 
         CompletableFuture<T> future = new CompletableFuture<>();
-        CompletableFuture.supplyAsync(() -> {
-            for (EventPriority priority : EventPriority.values()) {
-                this.handlePriority(priority, event);
-            }
-            return event;
-        }, this.eventManager.getThreadedExecutor()).thenAccept(futureEvent -> futureEvent.completeFuture(future)).whenComplete((ignore, error) -> {
+        CompletableFuture<T> handlerFuture;
+        try {
+            handlerFuture = CompletableFuture.supplyAsync(() -> {
+                this.callHandlers(event);
+                return event;
+            }, this.eventManager.getThreadedExecutor());
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            ProxyServer.getInstance().getLogger().error("Async event " + event.getClass().getSimpleName() + " was rejected by the event executor", e);
+            return future;
+        }
+
+        handlerFuture.thenAccept(futureEvent -> futureEvent.completeFuture(future)).whenComplete((ignore, error) -> {
             if (error != null && !future.isDone()) {
                 future.completeExceptionally(error);
                 ProxyServer.getInstance().getLogger().error("Exception was thrown in event handler", error);
@@ -68,17 +84,13 @@ public class EventHandler {
 
     private <T extends Event> CompletableFuture<T> handleSync(T event) {
         if (!event.isCompletable()) {
-            for (EventPriority priority : EventPriority.values()) {
-                this.handlePriority(priority, event);
-            }
+            this.callHandlers(event);
             // Non-completable events does not provide future.
             return null;
         }
 
         try {
-            for (EventPriority priority : EventPriority.values()) {
-                this.handlePriority(priority, event);
-            }
+            this.callHandlers(event);
         } catch (Exception e) {
             return CompletableFuture.failedFuture(e);
         }
@@ -92,21 +104,44 @@ public class EventHandler {
         return future;
     }
 
-    private void handlePriority(EventPriority priority, Event event) {
-        ArrayList<Consumer<Event>> handlerList = this.priority2handlers.get(priority);
-        if (handlerList != null) {
-            for (Consumer<Event> eventHandler : handlerList) {
-                eventHandler.accept(event);
-            }
+    private void callHandlers(Event event) {
+        for (Consumer<Event> eventHandler : this.handlers) {
+            eventHandler.accept(event);
         }
     }
 
-    public void subscribe(Consumer<Event> handler, EventPriority priority) {
+    public synchronized void subscribe(Consumer<Event> handler, EventPriority priority) {
         List<Consumer<Event>> handlerList = this.priority2handlers.computeIfAbsent(priority, priority1 -> new ArrayList<>());
         // Check if event is already registered
         if (!handlerList.contains(handler)) {
             // Handler is not registered yet
             handlerList.add(handler);
+            this.rebuildHandlers();
+        }
+    }
+
+    public synchronized void unsubscribe(Consumer<Event> handler) {
+        boolean removed = false;
+        for (List<Consumer<Event>> handlerList : this.priority2handlers.values()) {
+            removed |= handlerList.remove(handler);
         }
+
+        if (removed) {
+            this.rebuildHandlers();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuildHandlers() {
+        List<Consumer<Event>> handlers = new ArrayList<>();
+        // EnumMap iterates in declaration order of EventPriority
+        for (List<Consumer<Event>> handlerList : this.priority2handlers.values()) {
+            handlers.addAll(handlerList);
+        }
+        this.handlers = handlers.isEmpty() ? EMPTY_HANDLERS : handlers.toArray(new Consumer[0]);
+    }
+
+    public boolean hasSubscribers() {
+        return this.handlers.length > 0;
     }
 }
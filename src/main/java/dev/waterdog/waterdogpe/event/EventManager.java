@@ -16,11 +16,13 @@
 package dev.waterdog.waterdogpe.event;
 
 import dev.waterdog.waterdogpe.ProxyServer;
-import dev.waterdog.waterdogpe.utils.ThreadFactoryBuilder;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import dev.waterdog.waterdogpe.utils.MonitoredExecutor;
+import dev.waterdog.waterdogpe.utils.config.proxy.ProxyConfig;
+import dev.waterdog.waterdogpe.utils.exceptions.EventException;
 
 import java.util.concurrent.*;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Event Manager
@@ -30,16 +32,14 @@ import java.util.function.Consumer;
 public class EventManager {
 
     private final ProxyServer proxy;
-    private final ExecutorService threadedExecutor;
-    private final Object2ObjectOpenHashMap<Class<? extends Event>, EventHandler> handlerMap = new Object2ObjectOpenHashMap<>();
+    private final MonitoredExecutor threadedExecutor;
+    private final ConcurrentMap<Class<? extends Event>, EventHandler> handlerMap = new ConcurrentHashMap<>();
 
     public EventManager(ProxyServer proxy) {
         this.proxy = proxy;
-        ThreadFactoryBuilder builder = ThreadFactoryBuilder.builder()
-                .format("WaterdogEvents Executor - #%d")
-                .build();
-        int idleThreads = this.proxy.getConfiguration().getIdleThreads();
-        this.threadedExecutor = new ThreadPoolExecutor(idleThreads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(true), builder);
+        ProxyConfig config = this.proxy.getConfiguration();
+        this.threadedExecutor = MonitoredExecutor.create("WaterdogEvents", config.getExecutorMode(), config.getIdleThreads(),
+                config.getExecutorMaxThreads(), config.getExecutorQueueSize(), true);
     }
 
     public <T extends Event> void subscribe(Class<T> event, Consumer<T> handler) {
@@ -61,6 +61,32 @@ public class EventManager {
         eventHandler.subscribe((Consumer<Event>) handler, priority);
     }
 
+    /**
+     * Removes a handler previously registered using {@link #subscribe(Class, Consumer, EventPriority)}.
+     *
+     * @param event   A class reference to the event the handler was subscribed to
+     * @param handler The same handler instance which was passed to subscribe
+     * @param <T>     The class reference to the event you want to unsubscribe from
+     */
+    public <T extends Event> void unsubscribe(Class<T> event, Consumer<T> handler) {
+        EventHandler eventHandler = this.handlerMap.get(event);
+        if (eventHandler != null) {
+            eventHandler.unsubscribe((Consumer<Event>) handler);
+        }
+    }
+
+    /**
+     * Can be used to skip creating an event which nobody listens to.
+     * Handlers are matched by exact event class, same as in {@link #callEvent(Event)}.
+     *
+     * @param event A class reference to the event
+     * @return true if at least one handler is subscribed to the given event class
+     */
+    public boolean hasSubscribers(Class<? extends Event> event) {
+        EventHandler eventHandler = this.handlerMap.get(event);
+        return eventHandler != null && eventHandler.hasSubscribers();
+    }
+
     /**
      * Used to call an provided event.
      * If the target event has the annotation AsyncEvent present, the CompletableFuture.whenComplete can be used to
@@ -71,11 +97,51 @@ public class EventManager {
      * @return CompletableFuture<Event> if event has AsyncEvent annotation present or null in case of non-async event
      */
     public <T extends Event> CompletableFuture<T> callEvent(T event) {
-        EventHandler eventHandler = this.handlerMap.computeIfAbsent(event.getClass(), e -> new EventHandler(event.getClass(), this));
+        EventHandler eventHandler = this.handlerMap.get(event.getClass());
+        if (eventHandler == null) {
+            eventHandler = this.handlerMap.computeIfAbsent(event.getClass(), e -> new EventHandler(event.getClass(), this));
+        }
         return eventHandler.handle(event);
     }
 
+    /**
+     * Used to call an event which is only created if there is at least one handler subscribed to it.
+     * Should be preferred on hot paths, where the event would be usually created and called for nothing.
+     * Only events without AsyncEvent or CompletableEvent annotation can be called this way.
+     *
+     * @param eventClass A class reference to the event, the supplied event must be exactly of this class
+     * @param supplier   Creates the event instance when it needs to be called
+     * @return the called event or null if no handler is subscribed to the event
+     */
+    public <T extends Event> T callEvent(Class<T> eventClass, Supplier<T> supplier) {
+        EventHandler eventHandler = this.handlerMap.get(eventClass);
+        if (eventHandler == null || !eventHandler.hasSubscribers()) {
+            return null;
+        }
+
+        T event = supplier.get();
+        if (event.getClass() != eventClass) {
+            throw new EventException("Supplied event " + event.getClass().getSimpleName() + " does not match " + eventClass.getSimpleName());
+        }
+
+        if (event.isAsync()) {
+            throw new EventException("Event " + eventClass.getSimpleName() + " is async and must be called using callEvent(Event)");
+        }
+        if (event.isCompletable()) {
+            throw new EventException("Event " + eventClass.getSimpleName() + " is completable and must be called using callEvent(Event)");
+        }
+        eventHandler.handle(event);
+        return event;
+    }
+
     public ExecutorService getThreadedExecutor() {
         return this.threadedExecutor;
     }
+
+    /**
+     * @return executor of async events, which can be used to read active, queued and rejected task counts
+     */
+    public MonitoredExecutor getMonitoredExecutor() {
+        return this.threadedExecutor;
+    }
 }
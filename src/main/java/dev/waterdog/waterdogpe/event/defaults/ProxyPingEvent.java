@@ -24,6 +24,8 @@ import java.util.Collection;
 /**
  * This event is called when the Proxy receives a ping packet from a client.
  * It can be used to modify data, for example to combine proxy player counts.
+ * The resulting response is cached and reused for other clients for a short time,
+ * see {@link #setCacheable(boolean)} if the response depends on the pinging client.
  */
 public class ProxyPingEvent extends Event {
 
@@ -36,6 +38,7 @@ public class ProxyPingEvent extends Event {
     private Collection<ProxiedPlayer> players;
     private int playerCount = -1;
     private int maximumPlayerCount;
+    private boolean cacheable = true;
 
     public ProxyPingEvent(String motd, String subMotd, String gameType, String edition, String version, Collection<ProxiedPlayer> players, int maximumPlayerCount, InetSocketAddress address) {
         this.motd = motd;
@@ -115,4 +118,16 @@ public class ProxyPingEvent extends Event {
     public InetSocketAddress getAddress() {
         return this.address;
     }
+
+    public boolean isCacheable() {
+        return this.cacheable;
+    }
+
+    /**
+     * Set to false if the response was customized for this client, for example by its address.
+     * Non-cacheable responses are not reused and the event will be called again for the next ping.
+     */
+    public void setCacheable(boolean cacheable) {
+        this.cacheable = cacheable;
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network;
+
+public enum FlushReason {
+    /**
+     * Queue was flushed by the fixed 50ms tick
+     */
+    TICK,
+    /**
+     * Queue was flushed because a batch or an immediate packet had to be sent after queued packets
+     */
+    IMMEDIATE,
+    /**
+     * Queue was flushed at the end of the current read cycle of the channel
+     */
+    READ_COMPLETE,
+    /**
+     * Queue has reached the configured amount of packets
+     */
+    THRESHOLD,
+    /**
+     * Configured maximum delay of queued packets has expired
+     */
+    MAX_DELAY
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.*;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One of the listener channels bound to the same address using SO_REUSEPORT.
+ * Counts connections accepted by the shard and traffic of these connections,
+ * so uneven distribution of players between shards can be observed.
+ */
+public class ListenerShard {
+    public static final String NAME = "listener-shard";
+
+    private final int index;
+    private final TrafficHandler trafficHandler = new TrafficHandler();
+
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder totalConnections = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder packetsIn = new LongAdder();
+    private final LongAdder packetsOut = new LongAdder();
+
+    private volatile Channel channel;
+
+    public ListenerShard(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Called when a new connection was accepted by this shard.
+     */
+    public void onConnectionCreated(Channel channel) {
+        this.connections.increment();
+        this.totalConnections.increment();
+        channel.closeFuture().addListener(future -> this.connections.decrement());
+        channel.pipeline().addLast(NAME, this.trafficHandler);
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public Channel getChannel() {
+        return this.channel;
+    }
+
+    public void setChannel(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @return number of currently open connections
+     */
+    public long getConnections() {
+        return this.connections.sum();
+    }
+
+    /**
+     * @return number of connections accepted since the shard was bound
+     */
+    public long getTotalConnections() {
+        return this.totalConnections.sum();
+    }
+
+    public long getBytesIn() {
+        return this.bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return this.bytesOut.sum();
+    }
+
+    public long getPacketsIn() {
+        return this.packetsIn.sum();
+    }
+
+    public long getPacketsOut() {
+        return this.packetsOut.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ListenerShard(index=" + this.index +
+                ", connections=" + this.getConnections() +
+                ", bytesIn=" + this.getBytesIn() +
+                ", bytesOut=" + this.getBytesOut() +
+                ", packetsIn=" + this.getPacketsIn() +
+                ", packetsOut=" + this.getPacketsOut() + ")";
+    }
+
+    private static int readableBytes(Object msg) {
+        if (msg instanceof ByteBufHolder holder) {
+            return holder.content().readableBytes();
+        } else if (msg instanceof ByteBuf buf) {
+            return buf.readableBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * Counts RakNet messages at the head of the connection pipeline.
+     */
+    @ChannelHandler.Sharable
+    private class TrafficHandler extends ChannelDuplexHandler {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            packetsIn.increment();
+            bytesIn.add(readableBytes(msg));
+            super.channelRead(ctx, msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            packetsOut.increment();
+            bytesOut.add(readableBytes(msg));
+            super.write(ctx, msg, promise);
+        }
+    }
+}
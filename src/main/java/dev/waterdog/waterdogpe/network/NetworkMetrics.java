@@ -54,6 +54,14 @@ public interface NetworkMetrics {
     default void passedThroughBytes(int count, PacketDirection direction) {
     }
 
+    /**
+     * Called when a whole BedrockBatchWrapper is forwarded using its original compressed buffer,
+     * without being encoded and compressed again.
+     * @param direction the packet direction
+     */
+    default void passedThroughBatch(PacketDirection direction) {
+    }
+
     /**
      * Called when a packet modified and is encoded.
      * @param count the amount of encoded packets
@@ -70,6 +78,51 @@ public interface NetworkMetrics {
     default void passedThroughPackets(int count, PacketDirection direction) {
     }
 
+    /**
+     * Called when packets queued by the proxy are flushed to the channel.
+     * @param reason the reason of the flush
+     * @param count the amount of flushed packets
+     * @param direction the packet direction
+     */
+    default void flushedPackets(FlushReason reason, int count, PacketDirection direction) {
+    }
+
+    /**
+     * Called when a login is rejected because the login verification queue is full
+     */
+    default void loginVerificationRejected() {
+    }
+
+    /**
+     * Called when a public key from login or server handshake is looked up in the decoded key cache.
+     * @param hit whether the key was found in the cache
+     */
+    default void publicKeyCacheLookup(boolean hit) {
+    }
+
+    /**
+     * Called when a login chain link is looked up in the cache of recently verified signatures.
+     * @param hit whether the link was already verified with the same key
+     */
+    default void verifiedChainCacheLookup(boolean hit) {
+    }
+
+    /**
+     * Called when a batch compressed by the compression thread pool is written to the channel.
+     * @param queueDepth number of batches waiting in the pool when the batch was submitted
+     * @param nanos time spent compressing the batch
+     * @param direction the direction of the batch
+     */
+    default void offloadedCompression(int queueDepth, long nanos, PacketDirection direction) {
+    }
+
+    /**
+     * Called when a batch is sent from a thread other than the channel event loop and has to be submitted as a task.
+     * @param direction the {@link PacketDirection#ATTRIBUTE} of the channel the batch is written to
+     */
+    default void eventLoopHandoff(PacketDirection direction) {
+    }
+
     /**
      * Called when a datagram packet is dropped because it was blocked
      * @param count the amount of bytes within dropped datagram packet
@@ -20,11 +20,42 @@ import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 
 import java.net.SocketAddress;
+import java.util.Collection;
 
 public interface ProxiedConnection {
 
     void sendPacket(BedrockBatchWrapper wrapper);
 
+    /**
+     * Sends all batches in given order. Implementations should flush the channel only once.
+     */
+    default void sendPackets(Collection<BedrockBatchWrapper> batches) {
+        for (BedrockBatchWrapper batch : batches) {
+            this.sendPacket(batch);
+        }
+    }
+
+    /**
+     * Writes the batch without flushing the connection. Must be called from the connection event loop,
+     * see {@link #inEventLoop()}, and followed by {@link #flush()}.
+     */
+    default void writePacket(BedrockBatchWrapper wrapper) {
+        this.sendPacket(wrapper);
+    }
+
+    /**
+     * Flushes batches written using {@link #writePacket(BedrockBatchWrapper)}.
+     */
+    default void flush() {
+    }
+
+    /**
+     * @return true if the current thread is the event loop of this connection
+     */
+    default boolean inEventLoop() {
+        return false;
+    }
+
     void sendPacket(BedrockPacket packet);
 
     default void sendPacketImmediately(BedrockPacket packet) {
@@ -15,10 +15,13 @@
 
 package dev.waterdog.waterdogpe.network.connection.client;
 
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
+import dev.waterdog.waterdogpe.network.PacketDirection;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.FlushCoalescer;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.FrameIdCodec;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.AdaptiveCompressionStrategy;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.ProxiedCompressionCodec;
-import dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedSessionInitializer;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
 import dev.waterdog.waterdogpe.network.protocol.handler.ProxyBatchBridge;
@@ -52,7 +55,7 @@ import java.net.SocketAddress;
 import java.util.List;
 import java.util.Objects;
 
-import static dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedSessionInitializer.getCompressionStrategy;
+import static dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedSessionInitializer.getDownstreamCompressionStrategy;
 
 @Log4j2
 public class BedrockClientConnection extends SimpleChannelInboundHandler<BedrockBatchWrapper> implements ClientConnection {
@@ -64,23 +67,44 @@ public class BedrockClientConnection extends SimpleChannelInboundHandler<Bedrock
 
     private BedrockPacketHandler packetHandler;
     private CompressionStrategy compressionStrategy;
+    private final FlushCoalescer flushCoalescer;
 
     public BedrockClientConnection(ProxiedPlayer player, ServerInfo serverInfo, Channel channel) {
         this.player = player;
         this.serverInfo = serverInfo;
         this.channel = channel;
+        this.flushCoalescer = FlushCoalescer.create(channel, player.getProxy().getNetworkSettings());
         if (player.getProtocol().isBefore(ProtocolVersion.MINECRAFT_PE_1_19_30)) {
-            this.compressionStrategy = player.getConnection().getPeer().getRakVersion() < 10 ?
-                    ProxiedSessionInitializer.ZLIB_STRATEGY : ProxiedSessionInitializer.ZLIB_RAW_STRATEGY;
+            // Same strategy as the one set by ProxiedClientSessionInitializer
+            this.compressionStrategy = getDownstreamCompressionStrategy(serverInfo, null, player.getProtocol().getRaknetVersion(), true, false);
         }
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (this.flushCoalescer != null) {
+            this.flushCoalescer.close();
+        }
         this.disconnectListeners.forEach(Runnable::run);
         super.channelInactive(ctx);
     }
 
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (this.flushCoalescer != null) {
+            this.flushCoalescer.onReadStart();
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        super.channelReadComplete(ctx);
+        if (this.flushCoalescer != null) {
+            this.flushCoalescer.onReadComplete();
+        }
+    }
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, BedrockBatchWrapper batch) {
         if (this.packetHandler instanceof ProxyBatchBridge bridge) {
@@ -96,12 +120,44 @@ public class BedrockClientConnection extends SimpleChannelInboundHandler<Bedrock
 
     @Override
     public void sendPacket(BedrockBatchWrapper wrapper) {
+        this.checkCompression(wrapper);
+        if (!this.channel.eventLoop().inEventLoop()) {
+            NetworkMetrics metrics = this.channel.attr(NetworkMetrics.ATTRIBUTE).get();
+            PacketDirection direction = this.channel.attr(PacketDirection.ATTRIBUTE).get();
+            if (metrics != null && direction != null) {
+                metrics.eventLoopHandoff(direction);
+            }
+        }
+        this.channel.writeAndFlush(wrapper);
+    }
+
+    @Override
+    public void writePacket(BedrockBatchWrapper wrapper) {
+        this.checkCompression(wrapper);
+        this.channel.write(wrapper);
+    }
+
+    @Override
+    public void flush() {
+        this.channel.flush();
+    }
+
+    @Override
+    public boolean inEventLoop() {
+        return this.channel.eventLoop().inEventLoop();
+    }
+
+    private void checkCompression(BedrockBatchWrapper wrapper) {
         if (this.player.getProtocol().isBefore(ProtocolVersion.MINECRAFT_PE_1_20_60) &&
                 !Objects.equals(wrapper.getAlgorithm(), this.compressionStrategy.getDefaultCompression().getAlgorithm())) {
             wrapper.setCompressed(null); // Before 1.20.60 dynamic compression is not supported
         }
         // Starting with 1.20.60 support all compression algorithms on server side.
-        this.channel.writeAndFlush(wrapper);
+    }
+
+    @Override
+    public FlushCoalescer getFlushCoalescer() {
+        return this.flushCoalescer;
     }
 
     @Override
@@ -116,18 +172,21 @@ public class BedrockClientConnection extends SimpleChannelInboundHandler<Bedrock
 
     @Override
     public void setCompression(CompressionAlgorithm algorithm) {
-        CompressionStrategy strategy;
         if (algorithm instanceof CompressionType type && type.getBedrockAlgorithm() != null) {
-            strategy = getCompressionStrategy(type.getBedrockAlgorithm(), this.player.getProtocol().getRaknetVersion(), false);
-        } else {
-            strategy = getCompressionStrategy(algorithm, this.player.getProtocol().getRaknetVersion(), false);
+            algorithm = type.getBedrockAlgorithm();
         }
-        this.setCompressionStrategy(strategy);
+
+        boolean needsPrefix = this.player.getProtocol().isAfterOrEqual(ProtocolVersion.MINECRAFT_PE_1_20_60);
+        this.setCompressionStrategy(getDownstreamCompressionStrategy(this.serverInfo, algorithm,
+                this.player.getProtocol().getRaknetVersion(), false, needsPrefix));
     }
 
     @Override
     public void setCompressionStrategy(CompressionStrategy strategy) {
         boolean needsPrefix = this.player.getProtocol().isAfterOrEqual(ProtocolVersion.MINECRAFT_PE_1_20_60);
+        if (needsPrefix) {
+            strategy = AdaptiveCompressionStrategy.create(strategy, this.player.getProxy().getNetworkSettings());
+        }
 
         ChannelHandler handler = this.channel.pipeline().get(CompressionCodec.NAME);
         if (handler == null) {
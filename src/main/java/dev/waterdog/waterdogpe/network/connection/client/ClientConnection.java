@@ -16,6 +16,7 @@
 package dev.waterdog.waterdogpe.network.connection.client;
 
 import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.FlushCoalescer;
 import dev.waterdog.waterdogpe.network.serverinfo.ServerInfo;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
@@ -44,5 +45,12 @@ public interface ClientConnection extends ProxiedConnection {
 
     void addDisconnectListener(Runnable listener);
 
+    /**
+     * @return coalescer of batches forwarded from this connection to the player, or null if not supported
+     */
+    default FlushCoalescer getFlushCoalescer() {
+        return null;
+    }
+
     void disconnect();
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.batch;
+
+import dev.waterdog.waterdogpe.utils.ThreadFactoryBuilder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import lombok.extern.log4j.Log4j2;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debug handler which captures decompressed batches for the benchmarks.
+ * Enabled by -DrecordBatches=&lt;directory&gt;, batches received from clients are written to upstream.bin
+ * and batches received from servers to downstream.bin, using the format of benchmark BatchRecording.
+ * Files are written by a single background thread, batches are dropped if the writer can not keep up.
+ */
+@Log4j2
+@ChannelHandler.Sharable
+public class BatchRecorder extends ChannelInboundHandlerAdapter {
+    public static final String NAME = "batch-recorder";
+
+    private static final String DIRECTORY = System.getProperty("recordBatches");
+    private static final ThreadPoolExecutor WRITER = DIRECTORY == null ? null : new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(4096), ThreadFactoryBuilder.builder().format("Batch Recorder").daemon(true).build(),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    public static final BatchRecorder UPSTREAM = create("upstream.bin");
+    public static final BatchRecorder DOWNSTREAM = create("downstream.bin");
+
+    private final Path path;
+    private final DataOutputStream stream;
+
+    private BatchRecorder(Path path, DataOutputStream stream) {
+        this.path = path;
+        this.stream = stream;
+    }
+
+    private static BatchRecorder create(String fileName) {
+        if (DIRECTORY == null) {
+            return null;
+        }
+
+        Path path = Paths.get(DIRECTORY, fileName);
+        try {
+            Files.createDirectories(path.getParent());
+            BatchRecorder recorder = new BatchRecorder(path, new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))));
+            log.info("Recording batches to {}", path.toAbsolutePath());
+            return recorder;
+        } catch (IOException e) {
+            log.error("Unable to open batch recording {}", path, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof BedrockBatchWrapper batch && batch.getUncompressed() != null) {
+            ByteBuf uncompressed = batch.getUncompressed();
+            byte[] payload = ByteBufUtil.getBytes(uncompressed, uncompressed.readerIndex(), uncompressed.readableBytes());
+            WRITER.execute(() -> this.write(payload));
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    private void write(byte[] payload) {
+        try {
+            this.stream.writeInt(payload.length);
+            this.stream.write(payload);
+            this.stream.flush();
+        } catch (IOException e) {
+            log.error("Unable to write batch recording {}", this.path, e);
+        }
+    }
+}
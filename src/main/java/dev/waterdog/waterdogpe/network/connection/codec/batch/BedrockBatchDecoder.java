@@ -15,6 +15,7 @@
 
 package dev.waterdog.waterdogpe.network.connection.codec.batch;
 
+import dev.waterdog.waterdogpe.network.connection.codec.packet.PooledPacketWrapper;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -39,7 +40,7 @@ public class BedrockBatchDecoder extends MessageToMessageDecoder<BedrockBatchWra
         while (buffer.isReadable()) {
             int packetLength = VarInts.readUnsignedInt(buffer);
 
-            BedrockPacketWrapper wrapper = new BedrockPacketWrapper();
+            BedrockPacketWrapper wrapper = PooledPacketWrapper.newInstance();
             wrapper.setPacketBuffer(buffer.readRetainedSlice(packetLength));
             msg.getPackets().add(wrapper);
         }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.batch;
+
+import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
+import io.netty.channel.Channel;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+
+import java.util.List;
+
+/**
+ * Coalesces flushes of batches forwarded from one channel to the other connection of the same player.
+ * While the source channel is processing a read burst, forwarded batches are only written to the target
+ * connection, and the target is flushed once when the source channel completes reading.
+ * Works only if both connections share the same event loop, otherwise batches are sent as usual.
+ * All methods must be called from the source channel event loop.
+ */
+public class FlushCoalescer {
+
+    private final Channel channel;
+    private final List<ProxiedConnection> pendingFlushes = new ObjectArrayList<>(2);
+    private boolean reading;
+
+    public FlushCoalescer(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @return new coalescer of the source channel if enabled in settings, otherwise null
+     */
+    public static FlushCoalescer create(Channel channel, NetworkSettings settings) {
+        if (settings == null || !settings.flushCoalescing()) {
+            return null;
+        }
+        return new FlushCoalescer(channel);
+    }
+
+    public void onReadStart() {
+        this.reading = true;
+    }
+
+    /**
+     * Writes the batch to the target connection without flushing it, if possible.
+     * @return false if the batch was not written and should be sent using {@link ProxiedConnection#sendPacket(BedrockBatchWrapper)}
+     */
+    public boolean write(ProxiedConnection target, BedrockBatchWrapper batch) {
+        if (!this.reading || !this.channel.eventLoop().inEventLoop() || !target.inEventLoop()) {
+            return false;
+        }
+
+        target.writePacket(batch);
+        if (!this.pendingFlushes.contains(target)) {
+            this.pendingFlushes.add(target);
+        }
+        return true;
+    }
+
+    public void onReadComplete() {
+        this.reading = false;
+        if (this.pendingFlushes.isEmpty()) {
+            return;
+        }
+
+        for (ProxiedConnection connection : this.pendingFlushes) {
+            connection.flush();
+        }
+        this.pendingFlushes.clear();
+    }
+
+    public void close() {
+        this.onReadComplete();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.batch;
+
+import dev.waterdog.waterdogpe.network.FlushReason;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
+import io.netty.channel.Channel;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Decides when a packet queue should be flushed in the adaptive flush mode.
+ * Queue is flushed at the end of the current read cycle of the channel, once the configured
+ * amount of packets is queued, or when the maximum delay expires, whatever happens first.
+ * Apart from {@link #onQueued()} all methods must be called from the channel event loop.
+ */
+public class PacketFlushScheduler {
+
+    private final Channel channel;
+    private final Consumer<FlushReason> flushAction;
+    private final int maxPackets;
+    private final long maxDelay;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    private boolean reading;
+    private ScheduledFuture<?> delayFuture;
+
+    public PacketFlushScheduler(Channel channel, int maxPackets, long maxDelay, Consumer<FlushReason> flushAction) {
+        this.channel = channel;
+        this.maxPackets = Math.max(1, maxPackets);
+        this.maxDelay = Math.max(1, maxDelay);
+        this.flushAction = flushAction;
+    }
+
+    /**
+     * @return new scheduler if adaptive flushing is enabled, otherwise null
+     */
+    public static PacketFlushScheduler create(Channel channel, NetworkSettings settings, Consumer<FlushReason> flushAction) {
+        if (!settings.adaptiveFlush()) {
+            return null;
+        }
+        return new PacketFlushScheduler(channel, settings.getFlushMaxPackets(), settings.getFlushMaxDelay(), flushAction);
+    }
+
+    /**
+     * Called after a packet was added to the queue. Can be called from any thread.
+     */
+    public void onQueued() {
+        if (this.queued.incrementAndGet() == this.maxPackets) {
+            this.execute(() -> this.flush(FlushReason.THRESHOLD));
+        } else if (this.pending.compareAndSet(false, true)) {
+            this.execute(this::schedule);
+        }
+    }
+
+    private void schedule() {
+        if (!this.pending.get() || this.delayFuture != null) {
+            return;
+        }
+
+        if (!this.reading) {
+            // Packet was not queued while processing channel read, so wait at most maxDelay for more packets
+            this.delayFuture = this.channel.eventLoop().schedule(() -> {
+                this.delayFuture = null;
+                this.flush(FlushReason.MAX_DELAY);
+            }, this.maxDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void onReadStart() {
+        this.reading = true;
+    }
+
+    public void onReadComplete() {
+        this.reading = false;
+        if (this.pending.get()) {
+            this.flush(FlushReason.READ_COMPLETE);
+        }
+    }
+
+    private void flush(FlushReason reason) {
+        if (this.queued.get() > 0) {
+            this.flushAction.accept(reason);
+        } else {
+            this.onFlushed();
+        }
+    }
+
+    /**
+     * Called by the owner right before the queue is drained, regardless of the reason.
+     * Packets queued concurrently after this call will schedule another flush.
+     */
+    public void onFlushed() {
+        this.queued.set(0);
+        this.pending.set(false);
+        if (this.delayFuture != null) {
+            this.delayFuture.cancel(false);
+            this.delayFuture = null;
+        }
+    }
+
+    public void close() {
+        this.onFlushed();
+    }
+
+    private void execute(Runnable task) {
+        if (this.channel.eventLoop().inEventLoop()) {
+            task.run();
+        } else {
+            this.channel.eventLoop().execute(task);
+        }
+    }
+}
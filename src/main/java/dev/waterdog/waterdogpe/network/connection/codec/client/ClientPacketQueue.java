@@ -15,6 +15,12 @@
 
 package dev.waterdog.waterdogpe.network.connection.codec.client;
 
+import dev.waterdog.waterdogpe.network.FlushReason;
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
+import dev.waterdog.waterdogpe.network.PacketDirection;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.PacketFlushScheduler;
+import dev.waterdog.waterdogpe.network.connection.codec.packet.PooledPacketWrapper;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
@@ -32,22 +38,57 @@ public class ClientPacketQueue extends ChannelDuplexHandler {
     public static final String NAME = "client-packet-queue";
 
     private final Queue<BedrockPacketWrapper> packetQueue = PlatformDependent.newMpscQueue();
+    private final NetworkSettings settings;
     private ScheduledFuture<?> tickFuture;
+    private PacketFlushScheduler flushScheduler;
+
+    public ClientPacketQueue(NetworkSettings settings) {
+        this.settings = settings;
+    }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
-        this.tickFuture = ctx.channel().eventLoop().scheduleAtFixedRate(() -> this.onTick(ctx), 50, 50, TimeUnit.MILLISECONDS);
+        this.flushScheduler = PacketFlushScheduler.create(ctx.channel(), this.settings, reason -> this.onTick(ctx, reason));
+        if (this.flushScheduler == null) {
+            this.tickFuture = ctx.channel().eventLoop().scheduleAtFixedRate(() -> this.onTick(ctx, FlushReason.TICK), 50, 50, TimeUnit.MILLISECONDS);
+        }
         super.channelActive(ctx);
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-        this.tickFuture.cancel(false);
-        this.tickFuture = null;
+        if (this.tickFuture != null) {
+            this.tickFuture.cancel(false);
+            this.tickFuture = null;
+        }
+
+        if (this.flushScheduler != null) {
+            this.flushScheduler.close();
+        }
         super.channelInactive(ctx);
     }
 
-    private void onTick(ChannelHandlerContext ctx) {
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (this.flushScheduler != null) {
+            this.flushScheduler.onReadStart();
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        super.channelReadComplete(ctx);
+        if (this.flushScheduler != null) {
+            this.flushScheduler.onReadComplete();
+        }
+    }
+
+    private void onTick(ChannelHandlerContext ctx, FlushReason reason) {
+        if (this.flushScheduler != null) {
+            this.flushScheduler.onFlushed();
+        }
+
         if (!this.packetQueue.isEmpty()) {
             BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
 
@@ -55,6 +96,11 @@ public class ClientPacketQueue extends ChannelDuplexHandler {
             while ((packet = this.packetQueue.poll()) != null) {
                 batch.getPackets().add(packet);
             }
+
+            NetworkMetrics metrics = ctx.channel().attr(NetworkMetrics.ATTRIBUTE).get();
+            if (metrics != null) {
+                metrics.flushedPackets(reason, batch.getPackets().size(), ctx.channel().attr(PacketDirection.ATTRIBUTE).get());
+            }
             ctx.writeAndFlush(batch);
         }
     }
@@ -62,14 +108,22 @@ public class ClientPacketQueue extends ChannelDuplexHandler {
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
         if (msg instanceof BedrockPacket packet) {
-            this.packetQueue.add(new BedrockPacketWrapper(0, 0, 0, ReferenceCountUtil.retain(packet), null));
+            this.packetQueue.add(PooledPacketWrapper.newInstance(0, 0, ReferenceCountUtil.retain(packet), null));
+            this.onQueued();
         } else if (msg instanceof BedrockPacketWrapper packet) {
             this.packetQueue.add(ReferenceCountUtil.retain(packet));
+            this.onQueued();
         } else if (msg instanceof BedrockBatchWrapper) {
-            this.onTick(ctx);
+            this.onTick(ctx, FlushReason.IMMEDIATE);
             ctx.write(msg, promise);
         } else {
             ctx.write(msg, promise);
         }
     }
+
+    private void onQueued() {
+        if (this.flushScheduler != null) {
+            this.flushScheduler.onQueued();
+        }
+    }
 }
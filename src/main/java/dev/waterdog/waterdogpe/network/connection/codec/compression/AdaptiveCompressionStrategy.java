@@ -0,0 +1,219 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.compression;
+
+import dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedSessionInitializer;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.NoopCompression;
+import org.cloudburstmc.protocol.common.util.Zlib;
+
+/**
+ * Compression strategy which picks compression of every outgoing batch based on its size and recent results:
+ * <ul>
+ *     <li>batches smaller than the threshold are sent uncompressed, as zlib only adds overhead to them,</li>
+ *     <li>if recent batches did not compress (high entropy payloads), batches are sent uncompressed
+ *     and compression is only probed from time to time,</li>
+ *     <li>zlib level is lowered when compression takes more time per byte than the configured budget
+ *     and raised back up to the level of the parent strategy when there is enough headroom.
+ *     If the parent level is 0, batches are always stored without compression.</li>
+ * </ul>
+ * Batches which were already compressed and were not modified are passed through by the compression codec
+ * and never reach this strategy. Because every batch may use different algorithm, this strategy must only be used
+ * with prefixed compression (1.20.60+). Incoming batches are decompressed by the parent strategy.
+ */
+public class AdaptiveCompressionStrategy implements CompressionStrategy {
+    private static final BatchCompression NONE = new NoopCompression();
+    private static final BatchCompression[] ZLIB_LEVELS = new BatchCompression[10];
+
+    static {
+        for (int level = 0; level < ZLIB_LEVELS.length; level++) {
+            BatchCompression compression = ProxiedSessionInitializer.createZlibCompression(Zlib.RAW);
+            compression.setLevel(level);
+            ZLIB_LEVELS[level] = compression;
+        }
+    }
+
+    /**
+     * Number of compressed batches after which zlib level is reevaluated.
+     */
+    private static final int SAMPLE_WINDOW = 32;
+    /**
+     * Compression ratio (compressed / uncompressed) above which payloads are considered incompressible.
+     */
+    private static final double INCOMPRESSIBLE_RATIO = 0.95;
+    /**
+     * While payloads are incompressible, every n-th batch is still compressed to detect changes.
+     */
+    private static final int INCOMPRESSIBLE_PROBE_INTERVAL = 64;
+    private static final double EWMA_WEIGHT = 0.1;
+    /**
+     * Level used by zlib when level is set to -1.
+     */
+    private static final int ZLIB_DEFAULT_LEVEL = 6;
+
+    private final CompressionStrategy parent;
+    private final int threshold;
+    private final double budget;
+    private volatile int maxLevel;
+
+    private final BatchCompression measuredZlib = new MeasuredCompression();
+
+    // Updated from event loop or compression offload threads
+    private volatile int level;
+    private double ratio;
+    private double cost;
+    private boolean measured;
+    private int samples;
+    private int skipped;
+
+    public AdaptiveCompressionStrategy(CompressionStrategy parent, int threshold, double budget) {
+        this.parent = parent;
+        this.threshold = threshold;
+        this.budget = budget;
+        this.maxLevel = toZlibLevel(parent.getDefaultCompression().getLevel());
+        this.level = this.maxLevel;
+    }
+
+    private static int toZlibLevel(int level) {
+        return level < 0 ? ZLIB_DEFAULT_LEVEL : Math.min(9, level);
+    }
+
+    /**
+     * @return adaptive strategy wrapping the given one if enabled in settings, otherwise the given strategy
+     */
+    public static CompressionStrategy create(CompressionStrategy strategy, NetworkSettings settings) {
+        if (settings == null || !settings.adaptiveCompression() || strategy instanceof AdaptiveCompressionStrategy) {
+            return strategy;
+        }
+        return new AdaptiveCompressionStrategy(strategy, settings.getAdaptiveCompressionThreshold(), settings.getAdaptiveCompressionBudget());
+    }
+
+    @Override
+    public BatchCompression getCompression(BedrockBatchWrapper wrapper) {
+        ByteBuf uncompressed = wrapper.getUncompressed();
+        if (uncompressed != null && uncompressed.readableBytes() < this.threshold) {
+            return NONE;
+        }
+
+        BatchCompression compression = this.parent.getCompression(wrapper);
+        if (compression.getAlgorithm() != PacketCompressionAlgorithm.ZLIB) {
+            return compression;
+        }
+
+        if (this.isIncompressible()) {
+            return NONE;
+        }
+        return this.measuredZlib;
+    }
+
+    @Override
+    public BatchCompression getCompression(CompressionAlgorithm algorithm) {
+        return this.parent.getCompression(algorithm);
+    }
+
+    @Override
+    public BatchCompression getDefaultCompression() {
+        return this.parent.getDefaultCompression();
+    }
+
+    private synchronized boolean isIncompressible() {
+        if (this.ratio < INCOMPRESSIBLE_RATIO) {
+            return false;
+        }
+        return ++this.skipped % INCOMPRESSIBLE_PROBE_INTERVAL != 0;
+    }
+
+    private synchronized void onCompressed(int uncompressedSize, int compressedSize, long nanos) {
+        double ratio = (double) compressedSize / uncompressedSize;
+        double cost = (double) nanos / uncompressedSize;
+        if (!this.measured) {
+            this.ratio = ratio;
+            this.cost = cost;
+            this.measured = true;
+        } else {
+            this.ratio += (ratio - this.ratio) * EWMA_WEIGHT;
+            this.cost += (cost - this.cost) * EWMA_WEIGHT;
+        }
+
+        if (++this.samples < SAMPLE_WINDOW) {
+            return;
+        }
+        this.samples = 0;
+
+        int level = this.level;
+        if (this.cost > this.budget && level > 1) {
+            this.level = level - 1;
+        } else if (this.cost < this.budget / 2 && level < this.maxLevel) {
+            this.level = level + 1;
+        }
+    }
+
+    public int getLevel() {
+        return this.level;
+    }
+
+    /**
+     * Sets the highest zlib level the strategy may use and resets the current level to it.
+     */
+    private synchronized void setMaxLevel(int maxLevel) {
+        this.maxLevel = toZlibLevel(maxLevel);
+        this.level = this.maxLevel;
+    }
+
+    /**
+     * Zlib compression using the current adaptive level, which reports results back to the strategy.
+     */
+    private class MeasuredCompression implements BatchCompression {
+
+        @Override
+        public ByteBuf encode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+            int uncompressedSize = msg.readableBytes();
+            long start = System.nanoTime();
+            ByteBuf compressed = ZLIB_LEVELS[AdaptiveCompressionStrategy.this.level].encode(ctx, msg);
+            if (uncompressedSize > 0) {
+                onCompressed(uncompressedSize, compressed.readableBytes(), System.nanoTime() - start);
+            }
+            return compressed;
+        }
+
+        @Override
+        public ByteBuf decode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+            return ZLIB_LEVELS[AdaptiveCompressionStrategy.this.level].decode(ctx, msg);
+        }
+
+        @Override
+        public CompressionAlgorithm getAlgorithm() {
+            return PacketCompressionAlgorithm.ZLIB;
+        }
+
+        @Override
+        public void setLevel(int level) {
+            setMaxLevel(level);
+        }
+
+        @Override
+        public int getLevel() {
+            return AdaptiveCompressionStrategy.this.level;
+        }
+    }
+}
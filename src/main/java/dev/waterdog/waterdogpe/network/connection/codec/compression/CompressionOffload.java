@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.compression;
+
+import dev.waterdog.waterdogpe.utils.ThreadFactoryBuilder;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
+
+import java.util.concurrent.*;
+
+/**
+ * Worker pool used by {@link ProxiedCompressionCodec} to compress large batches outside the channel event loop.
+ */
+public class CompressionOffload {
+
+    private final ThreadPoolExecutor executor;
+    private final int threshold;
+
+    public CompressionOffload(int threads, int queueSize, int threshold) {
+        ThreadFactoryBuilder builder = ThreadFactoryBuilder.builder()
+                .format("Compression Worker - #%d")
+                .daemon(true)
+                .build();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), builder, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return new offload pool if enabled in settings, otherwise null
+     */
+    public static CompressionOffload create(NetworkSettings settings) {
+        if (!settings.compressionOffload()) {
+            return null;
+        }
+        return new CompressionOffload(Math.max(1, settings.getCompressionOffloadThreads()),
+                Math.max(1, settings.getCompressionOffloadQueue()), settings.getCompressionOffloadThreshold());
+    }
+
+    /**
+     * @param uncompressedSize size of the batch payload
+     * @return true if the batch is large enough to be compressed by the worker pool
+     */
+    public boolean shouldOffload(int uncompressedSize) {
+        return uncompressedSize >= this.threshold;
+    }
+
+    /**
+     * Submits the task to the worker pool.
+     * @return false if the queue is full and the task should be executed by the caller
+     */
+    public boolean submit(Runnable task) {
+        try {
+            this.executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+}
@@ -47,6 +47,15 @@ public class CompressionType implements Comparable<CompressionType>, Compression
             .bedrockAlgorithm(PacketCompressionAlgorithm.SNAPPY)
             .register();
 
+    /**
+     * Raw deflate with preset dictionary loaded from "compression_dictionary".
+     * Not supported by clients, used only between proxy and servers marked with dictionary_compression.
+     */
+    public static final CompressionType ZLIB_DICTIONARY = CompressionType.builder()
+            .identifier("zlib_dictionary")
+            .headerId((byte) 0x10)
+            .register();
+
     private final String identifier;
     private final PacketCompressionAlgorithm bedrockAlgorithm;
     private final byte headerId;
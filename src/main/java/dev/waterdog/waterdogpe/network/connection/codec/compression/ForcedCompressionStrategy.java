@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.compression;
+
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
+
+import java.util.Objects;
+
+/**
+ * Compression strategy which compresses all outgoing batches with the given compression,
+ * while incoming batches are decompressed using the parent strategy.
+ * Must be used only with prefixed compression (1.20.60+), where every batch carries its algorithm.
+ */
+public class ForcedCompressionStrategy implements CompressionStrategy {
+
+    private final CompressionStrategy parent;
+    private final BatchCompression compression;
+
+    public ForcedCompressionStrategy(CompressionStrategy parent, BatchCompression compression) {
+        this.parent = parent;
+        this.compression = compression;
+    }
+
+    @Override
+    public BatchCompression getCompression(BedrockBatchWrapper wrapper) {
+        return this.compression;
+    }
+
+    @Override
+    public BatchCompression getCompression(CompressionAlgorithm algorithm) {
+        if (Objects.equals(algorithm, this.compression.getAlgorithm())) {
+            return this.compression;
+        }
+        return this.parent.getCompression(algorithm);
+    }
+
+    @Override
+    public BatchCompression getDefaultCompression() {
+        return this.parent.getDefaultCompression();
+    }
+}
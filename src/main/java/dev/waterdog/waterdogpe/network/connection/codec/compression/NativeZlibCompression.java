@@ -0,0 +1,225 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Zlib compression which passes direct buffers straight to the native zlib bundled with the JVM,
+ * without copying batches to heap arrays. Composite batches are fed to zlib component by component.
+ * Deflater and inflater instances are shared by all instances and reused per thread,
+ * compression level and dictionary are applied on every call.
+ * Produces the same wire format as the default zlib compression, so it can be used as a drop-in replacement.
+ * <p>
+ * Optionally a preset dictionary can be used. Such compression is not understood by clients
+ * and must be registered as custom {@link CompressionType}, see {@link CompressionType#ZLIB_DICTIONARY}.
+ */
+public class NativeZlibCompression implements BatchCompression {
+    public static final int MAX_DECOMPRESSED_BYTES = 1024 * 1024 * 10;
+    /**
+     * Deflate can only reference last 32KB of the dictionary.
+     */
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+    private static final int CHUNK_SIZE = 8192;
+
+    private static final FastThreadLocal<Deflater> RAW_DEFLATER = createDeflater(true);
+    private static final FastThreadLocal<Deflater> DEFLATER = createDeflater(false);
+    private static final FastThreadLocal<Inflater> RAW_INFLATER = createInflater(true);
+    private static final FastThreadLocal<Inflater> INFLATER = createInflater(false);
+
+    private final boolean raw;
+    private final CompressionAlgorithm algorithm;
+    private final byte[] dictionary;
+    private int level = 7;
+
+    public NativeZlibCompression(boolean raw) {
+        this(raw, PacketCompressionAlgorithm.ZLIB, null);
+    }
+
+    /**
+     * @param raw whether zlib header and checksum are omitted
+     * @param algorithm algorithm reported to compression codec
+     * @param dictionary preset dictionary or null. Only last {@link #MAX_DICTIONARY_SIZE} bytes are used.
+     */
+    public NativeZlibCompression(boolean raw, CompressionAlgorithm algorithm, byte[] dictionary) {
+        if (dictionary != null && dictionary.length > MAX_DICTIONARY_SIZE) {
+            dictionary = Arrays.copyOfRange(dictionary, dictionary.length - MAX_DICTIONARY_SIZE, dictionary.length);
+        }
+        this.raw = raw;
+        this.algorithm = algorithm;
+        this.dictionary = dictionary;
+    }
+
+    private static FastThreadLocal<Deflater> createDeflater(boolean raw) {
+        return new FastThreadLocal<>() {
+            @Override
+            protected Deflater initialValue() {
+                return new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+            }
+
+            @Override
+            protected void onRemoval(Deflater value) {
+                value.end();
+            }
+        };
+    }
+
+    private static FastThreadLocal<Inflater> createInflater(boolean raw) {
+        return new FastThreadLocal<>() {
+            @Override
+            protected Inflater initialValue() {
+                return new Inflater(raw);
+            }
+
+            @Override
+            protected void onRemoval(Inflater value) {
+                value.end();
+            }
+        };
+    }
+
+    /**
+     * @return true if native zlib can be used with direct buffers on this JVM
+     */
+    public static boolean isAvailable() {
+        try {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(ByteBuffer.allocateDirect(1));
+                deflater.finish();
+                deflater.deflate(ByteBuffer.allocateDirect(16));
+            } finally {
+                deflater.end();
+            }
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    @Override
+    public ByteBuf encode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+        ByteBuf compressed = ctx.alloc().directBuffer(Math.max(64, msg.readableBytes() / 2));
+        try {
+            Deflater deflater = (this.raw ? RAW_DEFLATER : DEFLATER).get();
+            deflater.reset();
+            deflater.setLevel(this.level);
+            if (this.dictionary != null) {
+                deflater.setDictionary(this.dictionary);
+            }
+
+            ByteBuffer[] inputs = msg.nioBuffers();
+            if (inputs.length == 0) {
+                deflater.finish();
+                this.deflate(deflater, compressed, true);
+            }
+
+            for (int i = 0; i < inputs.length; i++) {
+                deflater.setInput(inputs[i]);
+                boolean last = i == inputs.length - 1;
+                if (last) {
+                    deflater.finish();
+                }
+                this.deflate(deflater, compressed, last);
+            }
+            return compressed.retain();
+        } finally {
+            compressed.release();
+        }
+    }
+
+    /**
+     * Deflates until all input was consumed, or until the stream is finished if {@link Deflater#finish()} was called.
+     */
+    private void deflate(Deflater deflater, ByteBuf compressed, boolean finish) {
+        while (finish ? !deflater.finished() : !deflater.needsInput()) {
+            compressed.ensureWritable(CHUNK_SIZE);
+            int written = deflater.deflate(compressed.internalNioBuffer(compressed.writerIndex(), compressed.writableBytes()));
+            compressed.writerIndex(compressed.writerIndex() + written);
+        }
+    }
+
+    @Override
+    public ByteBuf decode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+        ByteBuf decompressed = ctx.alloc().directBuffer(Math.min(MAX_DECOMPRESSED_BYTES, Math.max(CHUNK_SIZE, msg.readableBytes() * 4)));
+        try {
+            Inflater inflater = (this.raw ? RAW_INFLATER : INFLATER).get();
+            inflater.reset();
+            if (this.dictionary != null && this.raw) {
+                inflater.setDictionary(this.dictionary);
+            }
+
+            for (ByteBuffer input : msg.nioBuffers()) {
+                inflater.setInput(input);
+                while (!inflater.finished() && !inflater.needsInput()) {
+                    if (inflater.needsDictionary()) {
+                        if (this.dictionary == null) {
+                            throw new DataFormatException("Batch requires preset dictionary");
+                        }
+                        inflater.setDictionary(this.dictionary);
+                        continue;
+                    }
+
+                    if (decompressed.writerIndex() >= MAX_DECOMPRESSED_BYTES) {
+                        throw new DataFormatException("Inflated data exceeds maximum size");
+                    }
+                    decompressed.ensureWritable(Math.min(CHUNK_SIZE, MAX_DECOMPRESSED_BYTES - decompressed.writerIndex()));
+
+                    int read = inflater.inflate(decompressed.internalNioBuffer(decompressed.writerIndex(),
+                            Math.min(decompressed.writableBytes(), MAX_DECOMPRESSED_BYTES - decompressed.writerIndex())));
+                    decompressed.writerIndex(decompressed.writerIndex() + read);
+                }
+
+                if (inflater.finished()) {
+                    break;
+                }
+            }
+
+            if (!inflater.finished()) {
+                throw new DataFormatException("Batch is truncated or requires preset dictionary");
+            }
+            return decompressed.retain();
+        } finally {
+            decompressed.release();
+        }
+    }
+
+    @Override
+    public CompressionAlgorithm getAlgorithm() {
+        return this.algorithm;
+    }
+
+    @Override
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public int getLevel() {
+        return this.level;
+    }
+}
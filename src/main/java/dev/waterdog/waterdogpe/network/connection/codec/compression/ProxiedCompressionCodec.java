@@ -15,18 +15,198 @@
 
 package dev.waterdog.waterdogpe.network.connection.codec.compression;
 
+import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.network.NetworkMetrics;
 import dev.waterdog.waterdogpe.network.PacketDirection;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
 import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
 import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionCodec;
 import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
 
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
 public class ProxiedCompressionCodec extends CompressionCodec {
 
+    private final StagingCompressionStrategy strategy;
+    private final boolean prefixed;
+
+    private CompressionOffload offload;
+    // Writes waiting for offloaded compression, used to keep order of outgoing batches
+    private final ArrayDeque<PendingWrite> pendingWrites = new ArrayDeque<>();
+    private boolean flushPending;
+
     public ProxiedCompressionCodec(CompressionStrategy strategy, boolean prefixed) {
+        this(new StagingCompressionStrategy(strategy), prefixed);
+    }
+
+    private ProxiedCompressionCodec(StagingCompressionStrategy strategy, boolean prefixed) {
         super(strategy, prefixed);
+        this.strategy = strategy;
+        this.prefixed = prefixed;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        super.handlerAdded(ctx);
+        ProxyServer proxy = ProxyServer.getInstance();
+        if (proxy != null) {
+            this.offload = proxy.getCompressionOffload();
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        // Write everything which is already compressed, the rest can not be written once the codec is removed
+        this.drain(ctx);
+
+        PendingWrite write;
+        while ((write = this.pendingWrites.poll()) != null) {
+            PendingWrite pending = write;
+            if (pending.future.isDone()) {
+                this.discard(pending);
+            } else {
+                // Do not wait for the worker on the event loop, discard the batch once compression finishes
+                pending.future.whenComplete((ignore, error) -> this.discard(pending));
+            }
+        }
+        super.handlerRemoved(ctx);
+    }
+
+    private void discard(PendingWrite write) {
+        if (write.compressed != null) {
+            write.compressed.release();
+            write.compressed = null;
+        }
+        ReferenceCountUtil.safeRelease(write.msg);
+        write.promise.tryFailure(new ChannelException("Compression codec was removed before batch was written"));
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof BedrockBatchWrapper batch && this.offload != null && this.isCompressionNeeded(batch) &&
+                this.offload.shouldOffload(batch.getUncompressed().readableBytes())) {
+            // Algorithm is chosen on the event loop, only encoding itself is done by the worker
+            BatchCompression compression = this.prefixed ? this.strategy.getCompression(batch) : this.strategy.getDefaultCompression();
+            PendingWrite write = new PendingWrite(batch, promise, compression);
+            int queueDepth = this.offload.getQueueDepth();
+
+            this.pendingWrites.add(write);
+            if (this.offload.submit(() -> this.compress(ctx, write, queueDepth))) {
+                return;
+            }
+            // Worker queue is full, compress on event loop
+            this.pendingWrites.pollLast();
+            if (this.pendingWrites.isEmpty()) {
+                this.writeCompressed(ctx, batch, promise, compression, null);
+                return;
+            }
+        }
+
+        if (this.pendingWrites.isEmpty()) {
+            super.write(ctx, msg, promise);
+        } else {
+            this.pendingWrites.add(new PendingWrite(msg, promise, null));
+        }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (this.pendingWrites.isEmpty()) {
+            ctx.flush();
+        } else {
+            this.flushPending = true;
+        }
+    }
+
+    private boolean isCompressionNeeded(BedrockBatchWrapper batch) {
+        return batch.getUncompressed() != null && (batch.getCompressed() == null || batch.isModified());
+    }
+
+    /**
+     * Called from compression worker thread.
+     */
+    private void compress(ChannelHandlerContext ctx, PendingWrite write, int queueDepth) {
+        long start = System.nanoTime();
+        BedrockBatchWrapper batch = (BedrockBatchWrapper) write.msg;
+        try {
+            write.compressed = write.compression.encode(ctx, batch.getUncompressed());
+        } catch (Throwable t) {
+            write.cause = t;
+        }
+
+        write.compressionTime = System.nanoTime() - start;
+        write.queueDepth = queueDepth;
+        write.future.complete(null);
+        ctx.channel().eventLoop().execute(() -> this.drain(ctx));
+    }
+
+    /**
+     * Passes the batch to the library codec, which uses the given compression and adds compression header if needed.
+     * @param compressed already encoded batch, or null if the batch should be encoded now
+     */
+    private void writeCompressed(ChannelHandlerContext ctx, BedrockBatchWrapper batch, ChannelPromise promise, BatchCompression compression, ByteBuf compressed) throws Exception {
+        this.strategy.stage(compression, compressed);
+        try {
+            super.write(ctx, batch, promise);
+        } finally {
+            this.strategy.unstage();
+        }
+    }
+
+    private void drain(ChannelHandlerContext ctx) {
+        boolean written = false;
+
+        PendingWrite write;
+        while ((write = this.pendingWrites.peek()) != null && write.future.isDone()) {
+            this.pendingWrites.poll();
+            this.complete(ctx, write);
+            written = true;
+        }
+
+        if (written && this.flushPending) {
+            this.flushPending = !this.pendingWrites.isEmpty();
+            ctx.flush();
+        }
+    }
+
+    private void complete(ChannelHandlerContext ctx, PendingWrite write) {
+        if (write.compression == null) {
+            try {
+                super.write(ctx, write.msg, write.promise);
+            } catch (Throwable t) {
+                write.promise.tryFailure(t);
+            }
+            return;
+        }
+
+        BedrockBatchWrapper batch = (BedrockBatchWrapper) write.msg;
+        if (write.cause != null) {
+            batch.release();
+            write.promise.tryFailure(write.cause);
+            return;
+        }
+
+        ByteBuf compressed = write.compressed;
+        write.compressed = null;
+        try {
+            this.writeCompressed(ctx, batch, write.promise, write.compression, compressed);
+        } catch (Throwable t) {
+            write.promise.tryFailure(t);
+            return;
+        }
+
+        NetworkMetrics metrics = ctx.channel().attr(NetworkMetrics.ATTRIBUTE).get();
+        PacketDirection direction = ctx.channel().attr(PacketDirection.ATTRIBUTE).get();
+        if (metrics != null && direction != null) {
+            metrics.offloadedCompression(write.queueDepth, write.compressionTime, direction);
+        }
     }
 
     @Override
@@ -35,6 +215,7 @@ public class ProxiedCompressionCodec extends CompressionCodec {
         PacketDirection direction = ctx.channel().attr(PacketDirection.ATTRIBUTE).get();
         if (metrics != null && direction != null) {
             metrics.passedThroughBytes(msg.getCompressed().readableBytes(), direction);
+            metrics.passedThroughBatch(direction);
         }
     }
 
@@ -68,4 +249,111 @@ public class ProxiedCompressionCodec extends CompressionCodec {
     protected CompressionAlgorithm getCompressionAlgorithm0(byte header) {
         return CompressionType.fromHeaderId(header);
     }
+
+    private static class PendingWrite {
+        private final Object msg;
+        private final ChannelPromise promise;
+        /**
+         * Compression selected on the event loop, null if the message is not offloaded.
+         */
+        private final BatchCompression compression;
+        private final CompletableFuture<Void> future;
+
+        private ByteBuf compressed;
+        private Throwable cause;
+        private long compressionTime;
+        private int queueDepth;
+
+        private PendingWrite(Object msg, ChannelPromise promise, BatchCompression compression) {
+            this.msg = msg;
+            this.promise = promise;
+            this.compression = compression;
+            this.future = compression != null ? new CompletableFuture<>() : CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Strategy passed to the library codec. While a batch is staged, it returns compression chosen before
+     * the batch was offloaded, which yields the already encoded buffer. Otherwise calls are delegated to the parent.
+     * Only accessed from the channel event loop.
+     */
+    private static class StagingCompressionStrategy implements CompressionStrategy {
+        private final CompressionStrategy parent;
+        private final StagedCompression staged = new StagedCompression();
+        private BatchCompression stagedCompression;
+
+        private StagingCompressionStrategy(CompressionStrategy parent) {
+            this.parent = parent;
+        }
+
+        private void stage(BatchCompression compression, ByteBuf compressed) {
+            if (compressed == null) {
+                this.stagedCompression = compression;
+            } else {
+                this.staged.compression = compression;
+                this.staged.compressed = compressed;
+                this.stagedCompression = this.staged;
+            }
+        }
+
+        private void unstage() {
+            this.stagedCompression = null;
+            this.staged.compression = null;
+            if (this.staged.compressed != null) {
+                // Library codec did not use the buffer
+                this.staged.compressed.release();
+                this.staged.compressed = null;
+            }
+        }
+
+        @Override
+        public BatchCompression getCompression(BedrockBatchWrapper wrapper) {
+            return this.stagedCompression != null ? this.stagedCompression : this.parent.getCompression(wrapper);
+        }
+
+        @Override
+        public BatchCompression getCompression(CompressionAlgorithm algorithm) {
+            return this.parent.getCompression(algorithm);
+        }
+
+        @Override
+        public BatchCompression getDefaultCompression() {
+            return this.stagedCompression != null ? this.stagedCompression : this.parent.getDefaultCompression();
+        }
+    }
+
+    /**
+     * Compression returning a batch encoded by a compression worker.
+     */
+    private static class StagedCompression implements BatchCompression {
+        private BatchCompression compression;
+        private ByteBuf compressed;
+
+        @Override
+        public ByteBuf encode(ChannelHandlerContext ctx, ByteBuf msg) {
+            ByteBuf compressed = this.compressed;
+            this.compressed = null;
+            return compressed;
+        }
+
+        @Override
+        public ByteBuf decode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+            return this.compression.decode(ctx, msg);
+        }
+
+        @Override
+        public CompressionAlgorithm getAlgorithm() {
+            return this.compression.getAlgorithm();
+        }
+
+        @Override
+        public void setLevel(int level) {
+            this.compression.setLevel(level);
+        }
+
+        @Override
+        public int getLevel() {
+            return this.compression.getLevel();
+        }
+    }
 }
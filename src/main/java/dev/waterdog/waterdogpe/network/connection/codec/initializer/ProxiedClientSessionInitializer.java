@@ -19,6 +19,7 @@ import dev.waterdog.waterdogpe.network.NetworkMetrics;
 import dev.waterdog.waterdogpe.network.PacketDirection;
 import dev.waterdog.waterdogpe.network.connection.client.BedrockClientConnection;
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.BatchRecorder;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.BedrockBatchDecoder;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.BedrockBatchEncoder;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.FrameIdCodec;
@@ -68,11 +69,15 @@ public class ProxiedClientSessionInitializer extends ChannelInitializer<Channel>
 
         channel.pipeline()
                 .addLast(FrameIdCodec.NAME, RAKNET_FRAME_CODEC)
-                .addLast(CompressionCodec.NAME, new ProxiedCompressionCodec(getCompressionStrategy(compression, rakVersion, true), false))
+                .addLast(CompressionCodec.NAME, new ProxiedCompressionCodec(getDownstreamCompressionStrategy(this.serverInfo, compression, rakVersion, true, false), false))
                 .addLast(BedrockBatchDecoder.NAME, BATCH_DECODER)
                 .addLast(BedrockBatchEncoder.NAME, new BedrockBatchEncoder())
                 .addLast(BedrockPacketCodec.NAME, getPacketCodec(rakVersion))
-                .addLast(ClientPacketQueue.NAME, new ClientPacketQueue());
+                .addLast(ClientPacketQueue.NAME, new ClientPacketQueue(this.player.getProxy().getNetworkSettings()));
+
+        if (BatchRecorder.DOWNSTREAM != null) {
+            channel.pipeline().addBefore(BedrockBatchDecoder.NAME, BatchRecorder.NAME, BatchRecorder.DOWNSTREAM);
+        }
 
         ClientConnection connection = this.createConnection(channel);
         if (connection instanceof ChannelHandler handler) {
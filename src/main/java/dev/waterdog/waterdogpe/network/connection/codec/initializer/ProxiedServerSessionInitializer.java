@@ -16,6 +16,7 @@
 package dev.waterdog.waterdogpe.network.connection.codec.initializer;
 
 import dev.waterdog.waterdogpe.ProxyServer;
+import dev.waterdog.waterdogpe.network.ListenerShard;
 import dev.waterdog.waterdogpe.network.NetworkMetrics;
 import dev.waterdog.waterdogpe.network.PacketDirection;
 import dev.waterdog.waterdogpe.network.connection.peer.BedrockServerSession;
@@ -30,9 +31,15 @@ import org.cloudburstmc.netty.handler.codec.raknet.common.RakSessionCodec;
 import org.cloudburstmc.protocol.bedrock.BedrockPeer;
 
 public class ProxiedServerSessionInitializer extends ProxiedSessionInitializer<BedrockServerSession> {
+    private final ListenerShard shard;
 
     public ProxiedServerSessionInitializer(ProxyServer proxy) {
+        this(proxy, null);
+    }
+
+    public ProxiedServerSessionInitializer(ProxyServer proxy, ListenerShard shard) {
         super(proxy);
+        this.shard = shard;
     }
 
     @Override
@@ -53,6 +60,9 @@ public class ProxiedServerSessionInitializer extends ProxiedSessionInitializer<B
             channel.config().setOption(RakChannelOption.RAK_METRICS, rakMetrics);
         }
 
+        if (this.shard != null) {
+            this.shard.onConnectionCreated(channel);
+        }
         super.initChannel(channel);
     }
 
@@ -16,15 +16,20 @@
 package dev.waterdog.waterdogpe.network.connection.codec.initializer;
 
 import dev.waterdog.waterdogpe.ProxyServer;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.BatchRecorder;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.BedrockBatchDecoder;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.BedrockBatchEncoder;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.FrameIdCodec;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.ForcedCompressionStrategy;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.NativeZlibCompression;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.ProxiedCompressionCodec;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec_v1;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec_v2;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec_v3;
 import dev.waterdog.waterdogpe.network.connection.peer.ProxiedBedrockPeer;
+import dev.waterdog.waterdogpe.network.serverinfo.ServerInfo;
 import io.netty.channel.*;
 import lombok.AllArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -43,8 +48,21 @@ public abstract class ProxiedSessionInitializer<T extends BedrockSession> extend
     public static final FrameIdCodec<RakMessage> RAKNET_FRAME_CODEC = FrameIdCodec.RAK_CODEC.apply(0xfe);
     public static final BedrockBatchDecoder BATCH_DECODER = new BedrockBatchDecoder();
 
-    public static final CompressionStrategy ZLIB_RAW_STRATEGY = new SimpleCompressionStrategy(new ZlibCompression(Zlib.RAW));
-    public static final CompressionStrategy ZLIB_STRATEGY = new SimpleCompressionStrategy(new ZlibCompression(Zlib.DEFAULT));
+    /**
+     * Native zlib with direct buffers is used unless disabled by -DdisableNativeZlib=true or not supported by the JVM.
+     */
+    public static final boolean NATIVE_ZLIB = !Boolean.parseBoolean(System.getProperty("disableNativeZlib", "false")) &&
+            NativeZlibCompression.isAvailable();
+
+    // Upstream (proxy to client) strategies, compression level is set from upstream_compression_level
+    public static final CompressionStrategy ZLIB_RAW_STRATEGY = new SimpleCompressionStrategy(createZlibCompression(Zlib.RAW));
+    public static final CompressionStrategy ZLIB_STRATEGY = new SimpleCompressionStrategy(createZlibCompression(Zlib.DEFAULT));
+    // Downstream (proxy to server) strategies, compression level is set from downstream_compression_level
+    public static final CompressionStrategy DOWNSTREAM_ZLIB_RAW_STRATEGY = new SimpleCompressionStrategy(createZlibCompression(Zlib.RAW));
+    public static final CompressionStrategy DOWNSTREAM_ZLIB_STRATEGY = new SimpleCompressionStrategy(createZlibCompression(Zlib.DEFAULT));
+    // Downstream strategies with fixed compression level, used by servers which override the compression level
+    private static final CompressionStrategy[] DOWNSTREAM_ZLIB_RAW_LEVELS = createZlibLevelStrategies(Zlib.RAW);
+    private static final CompressionStrategy[] DOWNSTREAM_ZLIB_LEVELS = createZlibLevelStrategies(Zlib.DEFAULT);
     public static final CompressionStrategy SNAPPY_STRATEGY = new SimpleCompressionStrategy(new SnappyCompression());
     public static final CompressionStrategy NOOP_STRATEGY = new SimpleCompressionStrategy(new NoopCompression());
 
@@ -60,7 +78,11 @@ public abstract class ProxiedSessionInitializer<T extends BedrockSession> extend
                 .addLast(BedrockBatchDecoder.NAME, BATCH_DECODER)
                 .addLast(BedrockBatchEncoder.NAME, new BedrockBatchEncoder())
                 .addLast(BedrockPacketCodec.NAME, getPacketCodec(rakVersion))
-                .addLast(BedrockPeer.NAME, new ProxiedBedrockPeer(channel, this::createSession));
+                .addLast(BedrockPeer.NAME, new ProxiedBedrockPeer(channel, this::createSession, this.proxy.getNetworkSettings()));
+
+        if (BatchRecorder.UPSTREAM != null) {
+            channel.pipeline().addBefore(BedrockBatchDecoder.NAME, BatchRecorder.NAME, BatchRecorder.UPSTREAM);
+        }
     }
 
     protected final T createSession(BedrockPeer peer, int subClientId) {
@@ -91,6 +113,67 @@ public abstract class ProxiedSessionInitializer<T extends BedrockSession> extend
         };
     }
 
+    /**
+     * Returns compression strategy used for connections between proxy and downstream server.
+     * Unless the server has its own compression level or algorithm set, shared downstream strategies are used.
+     * Servers marked with dictionary compression receive batches compressed with the proxy dictionary, if it was loaded.
+     * @param prefixed whether batches are prefixed with compression header, which is required for forced compression algorithm
+     */
+    public static CompressionStrategy getDownstreamCompressionStrategy(ServerInfo serverInfo, CompressionAlgorithm algorithm, int rakVersion, boolean initial, boolean prefixed) {
+        CompressionStrategy strategy = switch (rakVersion) {
+            case 7, 8, 9 -> createDownstreamZlibStrategy(Zlib.DEFAULT, serverInfo.getCompressionLevel());
+            case 10 -> createDownstreamZlibStrategy(Zlib.RAW, serverInfo.getCompressionLevel());
+            case 11 -> {
+                if (initial) {
+                    yield NOOP_STRATEGY;
+                } else if (algorithm == PacketCompressionAlgorithm.ZLIB) {
+                    yield createDownstreamZlibStrategy(Zlib.RAW, serverInfo.getCompressionLevel());
+                }
+                yield getCompressionStrategy(algorithm);
+            }
+            default -> throw new UnsupportedOperationException("Unsupported RakNet protocol version: " + rakVersion);
+        };
+
+        BatchCompression dictionaryCompression = ProxyServer.getInstance() == null ? null : ProxyServer.getInstance().getDictionaryCompression();
+        CompressionType forced = serverInfo.getCompression();
+        if (!initial && prefixed && dictionaryCompression != null && serverInfo.isDictionaryCompression()) {
+            strategy = new ForcedCompressionStrategy(strategy, dictionaryCompression);
+        } else if (!initial && prefixed && forced != null && forced.getBedrockAlgorithm() != algorithm) {
+            CompressionStrategy forcedStrategy = forced.getBedrockAlgorithm() == PacketCompressionAlgorithm.ZLIB ?
+                    createDownstreamZlibStrategy(Zlib.RAW, serverInfo.getCompressionLevel()) : getCompressionStrategy(forced.getBedrockAlgorithm());
+            strategy = new ForcedCompressionStrategy(strategy, forcedStrategy.getDefaultCompression());
+        }
+        return strategy;
+    }
+
+    private static CompressionStrategy createDownstreamZlibStrategy(Zlib zlib, int level) {
+        if (level < 0) {
+            return zlib == Zlib.RAW ? DOWNSTREAM_ZLIB_RAW_STRATEGY : DOWNSTREAM_ZLIB_STRATEGY;
+        }
+
+        return (zlib == Zlib.RAW ? DOWNSTREAM_ZLIB_RAW_LEVELS : DOWNSTREAM_ZLIB_LEVELS)[level];
+    }
+
+    private static CompressionStrategy[] createZlibLevelStrategies(Zlib zlib) {
+        CompressionStrategy[] strategies = new CompressionStrategy[10];
+        for (int level = 0; level < strategies.length; level++) {
+            BatchCompression compression = createZlibCompression(zlib);
+            compression.setLevel(level);
+            strategies[level] = new SimpleCompressionStrategy(compression);
+        }
+        return strategies;
+    }
+
+    /**
+     * Creates zlib compression producing the given wire format, backed by native zlib if available.
+     */
+    public static BatchCompression createZlibCompression(Zlib zlib) {
+        if (NATIVE_ZLIB) {
+            return new NativeZlibCompression(zlib == Zlib.RAW);
+        }
+        return new ZlibCompression(zlib);
+    }
+
     private static CompressionStrategy getCompressionStrategy(CompressionAlgorithm algorithm) {
         if (algorithm == PacketCompressionAlgorithm.ZLIB) {
             return ZLIB_RAW_STRATEGY;
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.packet;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakDetectorFactory;
+import io.netty.util.ResourceLeakTracker;
+import io.netty.util.internal.ObjectPool;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+
+/**
+ * {@link BedrockPacketWrapper} which is returned to a pool once its reference count reaches zero.
+ * Wrapper must not be accessed after it was released, as it may already be reused by other batch.
+ * When leak detection is enabled (debug mode), wrappers which are never released are reported.
+ */
+public final class PooledPacketWrapper extends BedrockPacketWrapper {
+    private static final ObjectPool<PooledPacketWrapper> RECYCLER = ObjectPool.newPool(PooledPacketWrapper::new);
+    private static final ResourceLeakDetector<PooledPacketWrapper> LEAK_DETECTOR =
+            ResourceLeakDetectorFactory.instance().newResourceLeakDetector(PooledPacketWrapper.class);
+
+    private final ObjectPool.Handle<PooledPacketWrapper> handle;
+    private ResourceLeakTracker<PooledPacketWrapper> leak;
+
+    private PooledPacketWrapper(ObjectPool.Handle<PooledPacketWrapper> handle) {
+        this.handle = handle;
+    }
+
+    public static PooledPacketWrapper newInstance() {
+        PooledPacketWrapper wrapper = RECYCLER.get();
+        wrapper.setRefCnt(1);
+        wrapper.leak = LEAK_DETECTOR.track(wrapper);
+        return wrapper;
+    }
+
+    public static PooledPacketWrapper newInstance(int senderSubClientId, int targetSubClientId, BedrockPacket packet, ByteBuf packetBuffer) {
+        PooledPacketWrapper wrapper = newInstance();
+        wrapper.setSenderSubClientId(senderSubClientId);
+        wrapper.setTargetSubClientId(targetSubClientId);
+        wrapper.setPacket(packet);
+        wrapper.setPacketBuffer(packetBuffer);
+        return wrapper;
+    }
+
+    @Override
+    protected void deallocate() {
+        super.deallocate();
+        this.setPacketId(0);
+        this.setSenderSubClientId(0);
+        this.setTargetSubClientId(0);
+        this.setHeaderLength(0);
+        this.setPacket(null);
+        this.setPacketBuffer(null);
+
+        if (this.leak != null) {
+            this.leak.close(this);
+            this.leak = null;
+        }
+        this.handle.recycle(this);
+    }
+}
@@ -26,14 +26,18 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.DatagramPacket;
-import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
-import net.jodah.expiringmap.ExpiringMap;
+import io.netty.util.concurrent.FastThreadLocal;
 
-import java.net.InetAddress;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Collection;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.TimeUnit;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 @ChannelHandler.Sharable
 public class QueryHandler extends SimpleChannelInboundHandler<DatagramPacket> {
@@ -47,19 +51,37 @@ public class QueryHandler extends SimpleChannelInboundHandler<DatagramPacket> {
     public static final short PACKET_STATISTICS = 0x00;
     private static final String GAME_ID = "MINECRAFTPE";
 
+    /**
+     * Challenge tokens are derived from the client address and the current time window,
+     * so a token handed out in a handshake is accepted for one to two windows.
+     */
+    private static final long TOKEN_WINDOW_MILLIS = 30000;
+    private static final String TOKEN_ALGORITHM = "HmacSHA256";
+
     private final ProxyServer proxy;
 
-    private final ExpiringMap<InetAddress, QuerySession> querySessions = ExpiringMap.builder()
-            .expirationListener(this::onQueryExpired)
-            .expiration(60, TimeUnit.SECONDS)
-            .build();
+    private final SecretKeySpec tokenSecret;
+    private final FastThreadLocal<Mac> tokenMac = new FastThreadLocal<>() {
+        @Override
+        protected Mac initialValue() {
+            try {
+                Mac mac = Mac.getInstance(TOKEN_ALGORITHM);
+                mac.init(QueryHandler.this.tokenSecret);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Query token algorithm is not available", e);
+            }
+        }
+    };
+
+    private final Map<InetSocketAddress, CachedResponse> cachedResponses = new ConcurrentHashMap<>();
 
     public QueryHandler(ProxyServer proxy) {
         this.proxy = proxy;
-    }
 
-    public void onQueryExpired(InetAddress address, QuerySession session) {
-        this.proxy.getLogger().warning("Pending query from " + address + " has expired: token=" + session.token);
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.tokenSecret = new SecretKeySpec(secret, TOKEN_ALGORITHM);
     }
 
     private void writeInt(ByteBuf buf, int i) {
@@ -67,8 +89,8 @@ public class QueryHandler extends SimpleChannelInboundHandler<DatagramPacket> {
     }
 
     private void writeString(ByteBuf buf, String string) {
-        for (char c : string.toCharArray()) {
-            buf.writeByte(c);
+        for (int i = 0; i < string.length(); i++) {
+            buf.writeByte(string.charAt(i));
         }
         buf.writeByte(0);
     }
@@ -116,72 +138,99 @@ public class QueryHandler extends SimpleChannelInboundHandler<DatagramPacket> {
             reply.writeByte(PACKET_HANDSHAKE);
             reply.writeInt(sessionId);
 
-            int token = ThreadLocalRandom.current().nextInt();
-            this.querySessions.put(address.getAddress(), new QuerySession(token, System.currentTimeMillis()));
-            this.writeInt(reply, token);
+            long window = System.currentTimeMillis() / TOKEN_WINDOW_MILLIS;
+            this.writeInt(reply, this.createToken(address, window));
             ctx.writeAndFlush(new DatagramPacket(reply, address));
             return;
         }
 
         if (packetId == PACKET_STATISTICS && packet.isReadable(4)) {
-            QuerySession session = this.querySessions.remove(address.getAddress());
             int token = packet.readInt();
-            if (session == null || session.token != token) {
+            long window = System.currentTimeMillis() / TOKEN_WINDOW_MILLIS;
+            if (token != this.createToken(address, window) && token != this.createToken(address, window - 1)) {
                 return;
             }
 
-            ByteBuf reply = ctx.alloc().ioBuffer(64);
+            byte[] data = this.getData(address, packet.readableBytes() == 8, bindAddress);
+            ByteBuf reply = ctx.alloc().ioBuffer(5 + data.length);
             reply.writeByte(PACKET_STATISTICS);
             reply.writeInt(sessionId);
-
-            this.writeData(address, packet.readableBytes() == 8, reply, bindAddress);
+            reply.writeBytes(data);
             ctx.writeAndFlush(new DatagramPacket(reply, address));
         }
     }
 
-    private void writeData(InetSocketAddress address, boolean simple, ByteBuf buf, InetSocketAddress bindAddress) {
+    private int createToken(InetSocketAddress address, long window) {
+        Mac mac = this.tokenMac.get();
+        mac.update(address.getAddress().getAddress());
+        mac.update((byte) (window >>> 24));
+        mac.update((byte) (window >>> 16));
+        mac.update((byte) (window >>> 8));
+        mac.update((byte) window);
+        byte[] hash = mac.doFinal();
+        return (hash[0] & 0xff) << 24 | (hash[1] & 0xff) << 16 | (hash[2] & 0xff) << 8 | (hash[3] & 0xff);
+    }
+
+    private byte[] getData(InetSocketAddress address, boolean simple, InetSocketAddress bindAddress) {
         ProxyConfig config = this.proxy.getConfiguration();
+        Collection<ProxiedPlayer> players = this.proxy.getPlayerManager().getPlayers().values();
+
+        CachedResponse cached = this.cachedResponses.get(bindAddress);
+        if (cached != null && !cached.isExpired(config, players.size(), this.proxy.getNetworkSettings().getQueryCacheInterval())) {
+            return simple ? cached.basicStat : cached.fullStat;
+        }
+
         ProxyQueryEvent event = new ProxyQueryEvent(
                 config.getMotd(),
                 "SMP",
                 "MCPE",
                 "",
-                this.proxy.getPlayerManager().getPlayers().values(),
+                players,
                 config.getMaxPlayerCount(),
                 "WaterdogPE",
                 address
         );
-        this.proxy.getEventManager().callEvent(event);
-
-        if (simple) {
-            this.writeString(buf, event.getMotd());
-            this.writeString(buf, event.getGameType());
-            this.writeString(buf, event.getMap());
-            this.writeString(buf, Integer.toString(event.getPlayerCount()));
-            this.writeString(buf, Integer.toString(event.getMaximumPlayerCount()));
-            buf.writeShortLE(bindAddress.getPort());
-            this.writeString(buf, bindAddress.getHostName());
-            return;
+        // The event also holds the response values, so only the event bus is skipped if nobody listens
+        if (this.proxy.getEventManager().hasSubscribers(ProxyQueryEvent.class)) {
+            this.proxy.getEventManager().callEvent(event);
         }
 
-        Map<String, String> map = new Object2ObjectArrayMap<>();
-        map.put("hostname", event.getMotd());
-        map.put("gametype", event.getGameType());
-        map.put("map", event.getMap());
-        map.put("numplayers", Integer.toString(event.getPlayerCount()));
-        map.put("maxplayers", Integer.toString(event.getMaximumPlayerCount()));
-        map.put("hostport", Integer.toString(bindAddress.getPort()));
-        map.put("hostip", bindAddress.getHostName());
-        map.put("game_id", GAME_ID);
-        map.put("version", event.getVersion());
-        map.put("plugins", ""); // Do not list plugins
-        map.put("whitelist", event.hasWhitelist() ? "on" : "off");
+        CachedResponse response = new CachedResponse(this.writeBasicStat(event, bindAddress), this.writeFullStat(event, bindAddress),
+                System.currentTimeMillis(), config.getMotd(), players.size(), config.getMaxPlayerCount());
+        if (event.isCacheable()) {
+            this.cachedResponses.put(bindAddress, response);
+        } else {
+            this.cachedResponses.remove(bindAddress);
+        }
+        return simple ? response.basicStat : response.fullStat;
+    }
+
+    private byte[] writeBasicStat(ProxyQueryEvent event, InetSocketAddress bindAddress) {
+        ByteBuf buf = Unpooled.buffer(64);
+        this.writeString(buf, event.getMotd());
+        this.writeString(buf, event.getGameType());
+        this.writeString(buf, event.getMap());
+        this.writeString(buf, Integer.toString(event.getPlayerCount()));
+        this.writeString(buf, Integer.toString(event.getMaximumPlayerCount()));
+        buf.writeShortLE(bindAddress.getPort());
+        this.writeString(buf, bindAddress.getHostName());
+        return ByteBufUtil.getBytes(buf);
+    }
 
+    private byte[] writeFullStat(ProxyQueryEvent event, InetSocketAddress bindAddress) {
+        ByteBuf buf = Unpooled.buffer(256);
         buf.writeBytes(LONG_RESPONSE_PADDING_TOP);
-        map.forEach((key, value) -> {
-            this.writeString(buf, key);
-            this.writeString(buf, value);
-        });
+        this.writeKeyValue(buf, "hostname", event.getMotd());
+        this.writeKeyValue(buf, "gametype", event.getGameType());
+        this.writeKeyValue(buf, "map", event.getMap());
+        this.writeKeyValue(buf, "numplayers", Integer.toString(event.getPlayerCount()));
+        this.writeKeyValue(buf, "maxplayers", Integer.toString(event.getMaximumPlayerCount()));
+        this.writeKeyValue(buf, "hostport", Integer.toString(bindAddress.getPort()));
+        this.writeKeyValue(buf, "hostip", bindAddress.getHostName());
+        this.writeKeyValue(buf, "game_id", GAME_ID);
+        this.writeKeyValue(buf, "version", event.getVersion());
+        this.writeKeyValue(buf, "plugins", ""); // Do not list plugins
+        this.writeKeyValue(buf, "whitelist", event.hasWhitelist() ? "on" : "off");
         buf.writeByte(0);
         buf.writeBytes(LONG_RESPONSE_PADDING_BOTTOM);
 
@@ -191,16 +240,37 @@ public class QueryHandler extends SimpleChannelInboundHandler<DatagramPacket> {
             }
         }
         buf.writeByte(0);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private void writeKeyValue(ByteBuf buf, String key, String value) {
+        this.writeString(buf, key);
+        this.writeString(buf, value);
     }
 
-    private static class QuerySession {
+    private static class CachedResponse {
 
-        public final int token;
+        public final byte[] basicStat;
+        public final byte[] fullStat;
         public final long time;
+        public final String motd;
+        public final int playerCount;
+        public final int maxPlayerCount;
 
-        public QuerySession(int token, long time) {
-            this.token = token;
+        public CachedResponse(byte[] basicStat, byte[] fullStat, long time, String motd, int playerCount, int maxPlayerCount) {
+            this.basicStat = basicStat;
+            this.fullStat = fullStat;
             this.time = time;
+            this.motd = motd;
+            this.playerCount = playerCount;
+            this.maxPlayerCount = maxPlayerCount;
+        }
+
+        public boolean isExpired(ProxyConfig config, int playerCount, int interval) {
+            return interval <= 0 || (System.currentTimeMillis() - this.time) >= interval ||
+                    this.playerCount != playerCount ||
+                    this.maxPlayerCount != config.getMaxPlayerCount() ||
+                    !Objects.equals(this.motd, config.getMotd());
         }
     }
 }
@@ -18,6 +18,7 @@ package dev.waterdog.waterdogpe.network.connection.codec.server;
 import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.event.defaults.ProxyPingEvent;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import dev.waterdog.waterdogpe.utils.config.proxy.ProxyConfig;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
@@ -27,6 +28,8 @@ import org.cloudburstmc.netty.channel.raknet.RakPing;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Objects;
 import java.util.StringJoiner;
 
 @Log4j2
@@ -35,6 +38,13 @@ public class RakNetPingHandler extends SimpleChannelInboundHandler<RakPing> {
 
     private final ProxyServer proxy;
 
+    // Handler is bound to a single listener channel, so the cache is only accessed from its event loop
+    private byte[] cachedPong;
+    private long cachedPongTime;
+    private String cachedMotd;
+    private int cachedPlayerCount;
+    private int cachedMaxPlayerCount;
+
     public RakNetPingHandler(ProxyServer proxy) {
         this.proxy = proxy;
     }
@@ -42,20 +52,39 @@ public class RakNetPingHandler extends SimpleChannelInboundHandler<RakPing> {
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, RakPing rakPing) throws Exception {
         ProxyConfig config = this.proxy.getConfiguration();
+        Collection<ProxiedPlayer> players = this.proxy.getPlayerManager().getPlayers().values();
+        long guid = ctx.channel().config().getOption(RakChannelOption.RAK_GUID);
 
+        byte[] pong = this.cachedPong;
+        if (pong == null || this.isExpired(config, players.size())) {
+            pong = this.createPong(config, players, guid, rakPing);
+        }
+        ctx.writeAndFlush(rakPing.reply(guid, Unpooled.wrappedBuffer(pong)));
+    }
+
+    private boolean isExpired(ProxyConfig config, int playerCount) {
+        int interval = this.proxy.getNetworkSettings().getPingCacheInterval();
+        return interval <= 0 || (System.currentTimeMillis() - this.cachedPongTime) >= interval ||
+                this.cachedPlayerCount != playerCount ||
+                this.cachedMaxPlayerCount != config.getMaxPlayerCount() ||
+                !Objects.equals(this.cachedMotd, config.getMotd());
+    }
+
+    private byte[] createPong(ProxyConfig config, Collection<ProxiedPlayer> players, long guid, RakPing rakPing) {
         ProxyPingEvent event = new ProxyPingEvent(
                 config.getMotd(),
                 "WaterdogPE Proxy",
                 "Survival",
                 "MCPE",
                 ProtocolVersion.latest().getMinecraftVersion(),
-                this.proxy.getPlayerManager().getPlayers().values(),
+                players,
                 config.getMaxPlayerCount(),
                 rakPing.getSender()
         );
-        this.proxy.getEventManager().callEvent(event);
-
-        long guid = ctx.channel().config().getOption(RakChannelOption.RAK_GUID);
+        // The event also holds the response values, so only the event bus is skipped if nobody listens
+        if (this.proxy.getEventManager().hasSubscribers(ProxyPingEvent.class)) {
+            this.proxy.getEventManager().callEvent(event);
+        }
 
         StringJoiner joiner = new StringJoiner(";");
         joiner.add("MCPE");
@@ -68,6 +97,17 @@ public class RakNetPingHandler extends SimpleChannelInboundHandler<RakPing> {
         joiner.add(event.getSubMotd()); // Sub-motd
         joiner.add(event.getGameType()); // Game type
         joiner.add("1"); // Nintendo limited
-        ctx.writeAndFlush(rakPing.reply(guid, Unpooled.wrappedBuffer(joiner.toString().getBytes(StandardCharsets.UTF_8))));
+        byte[] pong = joiner.toString().getBytes(StandardCharsets.UTF_8);
+
+        if (event.isCacheable()) {
+            this.cachedPong = pong;
+            this.cachedPongTime = System.currentTimeMillis();
+            this.cachedMotd = config.getMotd();
+            this.cachedPlayerCount = players.size();
+            this.cachedMaxPlayerCount = config.getMaxPlayerCount();
+        } else {
+            this.cachedPong = null;
+        }
+        return pong;
     }
 }
@@ -33,6 +33,7 @@ import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.cloudburstmc.protocol.bedrock.packet.DisconnectPacket;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
+import java.util.Collection;
 import java.util.function.Consumer;
 
 @Log4j2
@@ -68,6 +69,26 @@ public class BedrockServerSession extends BedrockSession implements ProxiedConne
         this.getPeer().sendPacket(batch);
     }
 
+    @Override
+    public void sendPackets(Collection<BedrockBatchWrapper> batches) {
+        this.getPeer().sendPackets(batches);
+    }
+
+    @Override
+    public void writePacket(BedrockBatchWrapper batch) {
+        this.getPeer().writePacket(batch);
+    }
+
+    @Override
+    public void flush() {
+        this.getPeer().getChannel().flush();
+    }
+
+    @Override
+    public boolean inEventLoop() {
+        return this.getPeer().getChannel().eventLoop().inEventLoop();
+    }
+
     @Override
     public void sendPacketImmediately(BedrockPacket packet) {
         BedrockBatchWrapper batch = BedrockBatchWrapper.create(this.subClientId, packet);
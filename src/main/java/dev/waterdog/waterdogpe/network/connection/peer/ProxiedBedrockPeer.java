@@ -15,11 +15,19 @@
 
 package dev.waterdog.waterdogpe.network.connection.peer;
 
+import dev.waterdog.waterdogpe.network.FlushReason;
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
+import dev.waterdog.waterdogpe.network.PacketDirection;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.FlushCoalescer;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.FrameIdCodec;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.PacketFlushScheduler;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.AdaptiveCompressionStrategy;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.ProxiedCompressionCodec;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec;
+import dev.waterdog.waterdogpe.network.connection.codec.packet.PooledPacketWrapper;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -46,6 +54,7 @@ import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
 
 import javax.crypto.SecretKey;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -54,9 +63,19 @@ public class ProxiedBedrockPeer extends BedrockPeer {
     private BedrockServerSession firstSession;
     private CompressionStrategy compressionStrategy;
     private ProtocolVersion version = ProtocolVersion.oldest();
+    private final PacketFlushScheduler flushScheduler;
+    private final NetworkSettings settings;
+    private final FlushCoalescer flushCoalescer;
 
     public ProxiedBedrockPeer(Channel channel, BedrockSessionFactory factory) {
+        this(channel, factory, null);
+    }
+
+    public ProxiedBedrockPeer(Channel channel, BedrockSessionFactory factory, NetworkSettings settings) {
         super(channel, factory);
+        this.settings = settings;
+        this.flushCoalescer = FlushCoalescer.create(channel, settings);
+        this.flushScheduler = settings == null ? null : PacketFlushScheduler.create(channel, settings, this::flushQueue);
     }
 
     private void onBedrockBatch(BedrockBatchWrapper batch) {
@@ -94,8 +113,48 @@ public class ProxiedBedrockPeer extends BedrockPeer {
         super.removeSession(session);
     }
 
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        super.channelReadComplete(ctx);
+        if (this.flushScheduler != null) {
+            this.flushScheduler.onReadComplete();
+        }
+        if (this.flushCoalescer != null) {
+            this.flushCoalescer.onReadComplete();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (this.flushScheduler != null) {
+            this.flushScheduler.close();
+        }
+        if (this.flushCoalescer != null) {
+            this.flushCoalescer.close();
+        }
+        super.channelInactive(ctx);
+    }
+
     @Override
     protected void onTick() {
+        this.flushQueue(FlushReason.TICK);
+    }
+
+    private void flushQueue(FlushReason reason) {
+        if (this.writeQueue(reason)) {
+            this.channel.flush();
+        }
+    }
+
+    /**
+     * Writes queued packets as one batch without flushing the channel.
+     * @return true if a batch was written
+     */
+    private boolean writeQueue(FlushReason reason) {
+        if (this.flushScheduler != null) {
+            this.flushScheduler.onFlushed();
+        }
+
         if (!this.closed.get() && !this.packetQueue.isEmpty()) {
             BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
 
@@ -103,7 +162,22 @@ public class ProxiedBedrockPeer extends BedrockPeer {
             while ((packet = this.packetQueue.poll()) != null) {
                 batch.getPackets().add(packet);
             }
-            this.channel.writeAndFlush(batch);
+
+            NetworkMetrics metrics = this.channel.attr(NetworkMetrics.ATTRIBUTE).get();
+            if (metrics != null) {
+                metrics.flushedPackets(reason, batch.getPackets().size(), this.channel.attr(PacketDirection.ATTRIBUTE).get());
+            }
+            this.channel.write(batch);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void sendPacket(int senderClientId, int targetClientId, BedrockPacket packet) {
+        this.packetQueue.add(PooledPacketWrapper.newInstance(senderClientId, targetClientId, ReferenceCountUtil.retain(packet), null));
+        if (this.flushScheduler != null) {
+            this.flushScheduler.onQueued();
         }
     }
 
@@ -111,29 +185,70 @@ public class ProxiedBedrockPeer extends BedrockPeer {
         if (this.channel.eventLoop().inEventLoop()) {
             this.sendPacket0(wrapper);
         } else {
+            this.onEventLoopHandoff();
             this.channel.eventLoop().execute(() -> this.sendPacket0(wrapper));
         }
     }
 
+    private void onEventLoopHandoff() {
+        NetworkMetrics metrics = this.channel.attr(NetworkMetrics.ATTRIBUTE).get();
+        PacketDirection direction = this.channel.attr(PacketDirection.ATTRIBUTE).get();
+        if (metrics != null && direction != null) {
+            metrics.eventLoopHandoff(direction);
+        }
+    }
+
     private void sendPacket0(BedrockBatchWrapper wrapper) {
+        this.writePacket(wrapper);
+        this.channel.flush();
+    }
+
+    /**
+     * Writes the batch after currently queued packets without flushing the channel.
+     * Must be called from the channel event loop.
+     */
+    public void writePacket(BedrockBatchWrapper wrapper) {
+        this.checkCompression(wrapper);
+        this.writeQueue(FlushReason.IMMEDIATE);
+        this.channel.write(wrapper);
+    }
+
+    /**
+     * Writes all batches after currently queued packets and flushes the channel once.
+     */
+    public void sendPackets(Collection<BedrockBatchWrapper> batches) {
+        if (this.channel.eventLoop().inEventLoop()) {
+            this.sendPackets0(batches);
+        } else {
+            this.channel.eventLoop().execute(() -> this.sendPackets0(batches));
+        }
+    }
+
+    private void sendPackets0(Collection<BedrockBatchWrapper> batches) {
+        this.writeQueue(FlushReason.IMMEDIATE);
+        for (BedrockBatchWrapper batch : batches) {
+            this.checkCompression(batch);
+            this.channel.write(batch);
+        }
+        this.channel.flush();
+    }
+
+    private void checkCompression(BedrockBatchWrapper wrapper) {
         if (!(wrapper.getAlgorithm() instanceof PacketCompressionAlgorithm)) {
             wrapper.setCompressed(null); // Do not allow using unsupported algorithms when sending to client
         } else if (this.version.isBefore(ProtocolVersion.MINECRAFT_PE_1_20_60) &&
                 !Objects.equals(wrapper.getAlgorithm(), this.compressionStrategy.getDefaultCompression().getAlgorithm())) {
             wrapper.setCompressed(null); // Before 1.20.60 dynamic compression is not supported
         }
-
-        this.onTick();
-        this.getChannel().writeAndFlush(wrapper);
     }
 
     @Override
     public void sendPacketImmediately(int senderClientId, int targetClientId, BedrockPacket packet) {
         this.sendPacket(senderClientId, targetClientId, packet);
         if (this.channel.eventLoop().inEventLoop()) {
-            this.onTick();
+            this.flushQueue(FlushReason.IMMEDIATE);
         } else {
-            this.channel.eventLoop().execute(this::onTick);
+            this.channel.eventLoop().execute(() -> this.flushQueue(FlushReason.IMMEDIATE));
         }
     }
 
@@ -195,6 +310,9 @@ public class ProxiedBedrockPeer extends BedrockPeer {
     @Override
     public void setCompression(CompressionStrategy strategy) {
         boolean needsPrefix = this.getCodec().getProtocolVersion() >= ProtocolVersion.MINECRAFT_PE_1_20_60.getProtocol();
+        if (needsPrefix) {
+            strategy = AdaptiveCompressionStrategy.create(strategy, this.settings);
+        }
 
         ChannelHandler handler = this.channel.pipeline().get(CompressionCodec.NAME);
         if (handler == null) {
@@ -214,6 +332,10 @@ public class ProxiedBedrockPeer extends BedrockPeer {
         return this.channel.config().getOption(RakChannelOption.RAK_PROTOCOL_VERSION);
     }
 
+    public FlushCoalescer getFlushCoalescer() {
+        return this.flushCoalescer;
+    }
+
     public CompressionStrategy getCompressionStrategy() {
         return this.compressionStrategy;
     }
@@ -231,6 +353,13 @@ public class ProxiedBedrockPeer extends BedrockPeer {
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (this.flushScheduler != null) {
+            this.flushScheduler.onReadStart();
+        }
+        if (this.flushCoalescer != null) {
+            this.flushCoalescer.onReadStart();
+        }
+
         try {
             if (msg instanceof BedrockBatchWrapper) {
                 this.onBedrockBatch((BedrockBatchWrapper) msg);
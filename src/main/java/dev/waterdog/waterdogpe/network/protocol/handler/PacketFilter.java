@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.handler;
+
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockPacketDefinition;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable set of packet ids which have to be decoded because some handler is interested in them.
+ * Packets which are not part of the filter can be forwarded as raw buffers.
+ */
+public final class PacketFilter {
+    private static final int MAX_PACKET_ID = 0x3ff;
+
+    public static final PacketFilter ALL = new PacketFilter(fullMask());
+    public static final PacketFilter NONE = new PacketFilter(new long[(MAX_PACKET_ID >> 6) + 1]);
+
+    private static final Map<FilterKey, PacketFilter> CACHE = new ConcurrentHashMap<>();
+
+    private final long[] mask;
+
+    private PacketFilter(long[] mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Creates filter of all packets for which any of the given handler classes overrides
+     * a handle() method of {@link BedrockPacketHandler}. Result is cached per codec.
+     */
+    public static PacketFilter of(BedrockCodec codec, Class<?>... handlerClasses) {
+        return CACHE.computeIfAbsent(new FilterKey(codec, Arrays.asList(handlerClasses)), key -> {
+            Set<Class<? extends BedrockPacket>> packets = new HashSet<>();
+            for (Class<?> handlerClass : key.handlerClasses()) {
+                collectHandledPackets(handlerClass, packets);
+            }
+            return ofPackets(codec, packets);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public static PacketFilter ofPackets(BedrockCodec codec, Collection<Class<? extends BedrockPacket>> packets) {
+        long[] mask = new long[NONE.mask.length];
+        for (Class<? extends BedrockPacket> packetClass : packets) {
+            BedrockPacketDefinition<?> definition = codec.getPacketDefinition((Class<BedrockPacket>) packetClass);
+            if (definition != null) {
+                int packetId = definition.getId() & MAX_PACKET_ID;
+                mask[packetId >> 6] |= 1L << packetId;
+            }
+        }
+        return new PacketFilter(mask);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectHandledPackets(Class<?> handlerClass, Set<Class<? extends BedrockPacket>> packets) {
+        for (Method method : handlerClass.getMethods()) {
+            if (!method.getName().equals("handle") || method.getParameterCount() != 1 ||
+                    method.getDeclaringClass() == BedrockPacketHandler.class) {
+                continue;
+            }
+
+            Class<?> parameter = method.getParameterTypes()[0];
+            if (BedrockPacket.class.isAssignableFrom(parameter)) {
+                packets.add((Class<? extends BedrockPacket>) parameter);
+            }
+        }
+    }
+
+    private static long[] fullMask() {
+        long[] mask = new long[(MAX_PACKET_ID >> 6) + 1];
+        Arrays.fill(mask, -1L);
+        return mask;
+    }
+
+    public boolean isInteresting(int packetId) {
+        int id = packetId & MAX_PACKET_ID;
+        return (this.mask[id >> 6] & (1L << id)) != 0;
+    }
+
+    public PacketFilter or(PacketFilter other) {
+        if (this == ALL || other == ALL) {
+            return ALL;
+        }
+
+        long[] mask = new long[this.mask.length];
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = this.mask[i] | other.mask[i];
+        }
+        return new PacketFilter(mask);
+    }
+
+    public PacketFilter andNot(PacketFilter other) {
+        long[] mask = new long[this.mask.length];
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = this.mask[i] & ~other.mask[i];
+        }
+        return new PacketFilter(mask);
+    }
+
+    private record FilterKey(BedrockCodec codec, List<Class<?>> handlerClasses) {
+    }
+}
@@ -20,7 +20,18 @@ import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
+import java.util.Collection;
+
 public interface PluginPacketHandler extends BedrockPacketHandler {
 
     PacketSignal handlePacket(BedrockPacket packet, PacketDirection direction);
+
+    /**
+     * Packets this handler wants to receive. Packets which are not handled by the proxy
+     * nor by any plugin handler can be forwarded without being decoded.
+     * @return collection of packet classes or null if handler wants to receive all packets.
+     */
+    default Collection<Class<? extends BedrockPacket>> getHandledPackets() {
+        return null;
+    }
 }
@@ -15,11 +15,20 @@
 
 package dev.waterdog.waterdogpe.network.protocol.handler;
 
+import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
 import dev.waterdog.waterdogpe.network.protocol.Signals;
+import dev.waterdog.waterdogpe.network.protocol.rewrite.BlockMap;
+import dev.waterdog.waterdogpe.network.protocol.rewrite.EntityMap;
+import dev.waterdog.waterdogpe.network.protocol.rewrite.EntityTracker;
 import io.netty.buffer.ByteBuf;
 import io.netty.util.ReferenceCountUtil;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
@@ -30,6 +39,7 @@ import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.cloudburstmc.protocol.common.PacketSignal;
 import org.cloudburstmc.protocol.common.util.Preconditions;
 
+import java.util.Collection;
 import java.util.ListIterator;
 
 @Data
@@ -38,19 +48,47 @@ public class ProxyBatchBridge implements BedrockPacketHandler {
     private final BedrockCodec codec;
     private final BedrockCodecHelper helper;
 
+    private final boolean passthrough;
+    private final Reference2ObjectMap<PluginPacketHandler, PacketFilter> pluginFilters = new Reference2ObjectOpenHashMap<>();
+
     private ProxyPacketHandler handler;
+    private PacketFilter packetFilter;
+    private PacketFilter rawRewriteFilter;
+    // Block map the packet filter was created for, filter is rebuilt once the player's block map changes
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private BlockMap filterBlockMap;
     private boolean forceEncode;
 
     public ProxyBatchBridge(BedrockCodec codec, BedrockCodecHelper helper, ProxyPacketHandler handler) {
         this.codec = codec;
         this.helper = helper;
+        this.passthrough = ProxyServer.getInstance().getNetworkSettings().packetPassthrough();
         this.setHandler(handler);
     }
 
     public void onBedrockBatch(ProxiedConnection source, BedrockBatchWrapper batch) {
+        if (this.handler.getRewriteMaps().getBlockMap() != this.filterBlockMap) {
+            this.updatePacketFilter();
+        }
+
+        Collection<PluginPacketHandler> pluginHandlers = this.handler.getPluginPacketHandlers();
         ListIterator<BedrockPacketWrapper> iterator = batch.getPackets().listIterator();
         while (iterator.hasNext()) {
             BedrockPacketWrapper wrapper = iterator.next();
+            if (!this.isForceEncode() && !this.isPluginInteresting(wrapper.getPacketId(), pluginHandlers)) {
+                if (wrapper.getPacket() == null && this.rawRewriteFilter.isInteresting(wrapper.getPacketId())) {
+                    if (this.handler.getRewriteMaps().getEntityMap().doRawRewrite(wrapper) == PacketSignal.HANDLED) {
+                        batch.modify(); // packet buffer was rewritten, no need to encode it again
+                    }
+                    continue;
+                }
+
+                if (!this.packetFilter.isInteresting(wrapper.getPacketId())) {
+                    continue; // nobody handles this packet, forward the raw buffer
+                }
+            }
+
             if (wrapper.getPacket() == null) {
                 this.decodePacket(wrapper);
             }
@@ -84,6 +122,30 @@ public class ProxyBatchBridge implements BedrockPacketHandler {
         }
     }
 
+    private boolean isPluginInteresting(int packetId, Collection<PluginPacketHandler> pluginHandlers) {
+        if (pluginHandlers.isEmpty()) {
+            return false;
+        }
+
+        if (this.pluginFilters.size() > pluginHandlers.size() * 2) {
+            this.pluginFilters.clear(); // drop filters of removed handlers
+        }
+
+        for (PluginPacketHandler pluginHandler : pluginHandlers) {
+            PacketFilter filter = this.pluginFilters.get(pluginHandler);
+            if (filter == null) {
+                Collection<Class<? extends BedrockPacket>> packets = pluginHandler.getHandledPackets();
+                filter = packets == null ? PacketFilter.ALL : PacketFilter.ofPackets(this.codec, packets);
+                this.pluginFilters.put(pluginHandler, filter);
+            }
+
+            if (filter.isInteresting(packetId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void decodePacket(BedrockPacketWrapper wrapper) {
         ByteBuf msg = wrapper.getPacketBuffer().retainedSlice();
         try {
@@ -104,5 +166,19 @@ public class ProxyBatchBridge implements BedrockPacketHandler {
     public void setHandler(ProxyPacketHandler handler) {
         Preconditions.checkNotNull(handler, "Handler can not be null");
         this.handler = handler;
+        this.updatePacketFilter();
+    }
+
+    private void updatePacketFilter() {
+        this.filterBlockMap = this.handler.getRewriteMaps().getBlockMap();
+        if (this.passthrough) {
+            PacketFilter filter = this.handler.getPacketFilter(this.codec).or(PacketFilter.of(this.codec, EntityTracker.class));
+            this.packetFilter = filter.or(PacketFilter.of(this.codec, EntityMap.class));
+            // Entity ids can be rewritten in the buffer if no other handler needs the decoded packet
+            this.rawRewriteFilter = EntityMap.getRawRewriteFilter(this.codec).andNot(filter);
+        } else {
+            this.packetFilter = PacketFilter.ALL;
+            this.rawRewriteFilter = PacketFilter.NONE;
+        }
     }
 }
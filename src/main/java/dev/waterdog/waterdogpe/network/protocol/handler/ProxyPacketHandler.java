@@ -17,11 +17,15 @@ package dev.waterdog.waterdogpe.network.protocol.handler;
 
 import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.RewriteMaps;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
+import java.util.Collection;
+import java.util.Collections;
+
 public interface ProxyPacketHandler extends BedrockPacketHandler {
     void sendProxiedBatch(BedrockBatchWrapper batch);
 
@@ -32,6 +36,21 @@ public interface ProxyPacketHandler extends BedrockPacketHandler {
         return false;
     }
 
+    /**
+     * Packets which this handler wants to receive. Other packets may be forwarded
+     * by {@link ProxyBatchBridge} without being decoded.
+     */
+    default PacketFilter getPacketFilter(BedrockCodec codec) {
+        return PacketFilter.ALL;
+    }
+
+    /**
+     * Plugin handlers which are called by this handler.
+     */
+    default Collection<PluginPacketHandler> getPluginPacketHandlers() {
+        return Collections.emptyList();
+    }
+
     default PacketSignal doPacketRewrite(BedrockPacket packet) {
         return this.getRewriteMaps().getEntityMap().doRewrite(packet);
     }
@@ -17,11 +17,15 @@ package dev.waterdog.waterdogpe.network.protocol.handler.downstream;
 
 import dev.waterdog.waterdogpe.command.Command;
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.FlushCoalescer;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import dev.waterdog.waterdogpe.network.protocol.handler.PacketFilter;
 import dev.waterdog.waterdogpe.network.protocol.handler.ProxyPacketHandler;
+import dev.waterdog.waterdogpe.network.protocol.rewrite.BlockMap;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.RewriteMaps;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import dev.waterdog.waterdogpe.network.protocol.Signals;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.data.command.CommandData;
 import org.cloudburstmc.protocol.bedrock.data.command.CommandEnumConstraint;
 import org.cloudburstmc.protocol.bedrock.data.command.CommandEnumData;
@@ -47,8 +51,22 @@ public abstract class AbstractDownstreamHandler implements ProxyPacketHandler {
     @Override
     public void sendProxiedBatch(BedrockBatchWrapper batch) {
         if (this.player.getConnection().isConnected()) {
-            this.player.getConnection().sendPacket(batch.retain());
+            FlushCoalescer coalescer = this.connection.getFlushCoalescer();
+            BedrockBatchWrapper retained = batch.retain();
+            if (coalescer == null || !coalescer.write(this.player.getConnection(), retained)) {
+                this.player.getConnection().sendPacket(retained);
+            }
+        }
+    }
+
+    @Override
+    public PacketFilter getPacketFilter(BedrockCodec codec) {
+        // Block map may be replaced by plugins, filter is rebuilt by the bridge when it changes
+        BlockMap blockMap = this.player.getRewriteMaps().getBlockMap();
+        if (blockMap == null) {
+            return PacketFilter.of(codec, this.getClass());
         }
+        return PacketFilter.of(codec, this.getClass(), blockMap.getClass());
     }
 
     @Override
@@ -29,6 +29,8 @@ import dev.waterdog.waterdogpe.network.protocol.Signals;
 import dev.waterdog.waterdogpe.utils.types.TranslationContainer;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
+import java.util.Collection;
+
 import static dev.waterdog.waterdogpe.network.protocol.Signals.mergeSignals;
 import static dev.waterdog.waterdogpe.network.protocol.user.PlayerRewriteUtils.injectEntityImmobile;
 
@@ -49,6 +51,11 @@ public class ConnectedDownstreamHandler extends AbstractDownstreamHandler {
         return signal;
     }
 
+    @Override
+    public Collection<PluginPacketHandler> getPluginPacketHandlers() {
+        return this.player.getPluginPacketHandlers();
+    }
+
     @Override
     public PacketSignal handle(PlayStatusPacket packet) {
         if (!this.player.acceptPlayStatus() || packet.getStatus() != PlayStatusPacket.Status.PLAYER_SPAWN) {
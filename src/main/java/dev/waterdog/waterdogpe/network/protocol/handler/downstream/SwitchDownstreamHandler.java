@@ -19,6 +19,7 @@ import com.nimbusds.jwt.SignedJWT;
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
 import dev.waterdog.waterdogpe.network.protocol.handler.TransferCallback;
 import dev.waterdog.waterdogpe.network.protocol.user.HandshakeUtils;
+import dev.waterdog.waterdogpe.network.protocol.user.TransferCleanupBuilder;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import lombok.extern.log4j.Log4j2;
 import org.cloudburstmc.math.vector.Vector3f;
@@ -137,51 +138,60 @@ public class SwitchDownstreamHandler extends AbstractDownstreamHandler {
         ServerTransferEvent event = new ServerTransferEvent(this.player, oldConnection.getServerInfo(), this.connection.getServerInfo());
         this.player.getProxy().getEventManager().callEvent(event);
 
+        // Collect all cleanup packets into few batches and write them with one flush
+        TransferCleanupBuilder cleanup = new TransferCleanupBuilder(this.player.getConnection());
+
         LongSet blobs = this.player.getChunkBlobs();
-        if (this.player.getProtocol().isBefore(ProtocolVersion.MINECRAFT_PE_1_18_30) &&
-                this.player.getLoginData().getCachePacket().isSupported() && !blobs.isEmpty()) {
-            injectChunkCacheBlobs(this.player.getConnection(), blobs);
+        synchronized (blobs) {
+            if (this.player.getProtocol().isBefore(ProtocolVersion.MINECRAFT_PE_1_18_30) &&
+                    this.player.getLoginData().getCachePacket().isSupported()) {
+                cleanup.chunkCacheBlobs(blobs);
+            }
+            blobs.clear();
         }
-        this.player.getChunkBlobs().clear();
 
         Long2LongMap entityLinks = this.player.getEntityLinks();
-        for (Long2LongMap.Entry entry : entityLinks.long2LongEntrySet()) {
-            injectRemoveEntityLink(this.player.getConnection(), entry.getLongKey(), entry.getLongValue());
+        synchronized (entityLinks) {
+            cleanup.removeEntityLinks(entityLinks);
+            entityLinks.clear();
         }
-        entityLinks.clear();
 
         LongSet bossbars = this.player.getBossbars();
-        for (long bossbarId : bossbars) {
-            injectRemoveBossbar(this.player.getConnection(), bossbarId);
+        synchronized (bossbars) {
+            cleanup.removeBossbars(bossbars);
+            bossbars.clear();
         }
-        bossbars.clear();
 
         Collection<UUID> playerList = this.player.getPlayers();
-        injectRemoveAllPlayers(this.player.getConnection(), playerList);
-        playerList.clear();
+        synchronized (playerList) {
+            cleanup.removePlayers(playerList);
+            playerList.clear();
+        }
 
         LongSet entities = this.player.getEntities();
-        for (long entityId : entities) {
-            injectRemoveEntity(this.player.getConnection(), entityId);
+        synchronized (entities) {
+            cleanup.removeEntities(entities);
+            entities.clear();
         }
-        entities.clear();
 
         Long2ObjectMap<ScoreInfo> scoreInfos = this.player.getScoreInfos();
-        injectRemoveScoreInfos(this.player.getConnection(), scoreInfos);
-        scoreInfos.clear();
+        synchronized (scoreInfos) {
+            cleanup.removeScoreInfos(scoreInfos);
+            scoreInfos.clear();
+        }
 
         ObjectSet<String> scoreboards = this.player.getScoreboards();
-        for (String scoreboard : scoreboards) {
-            injectRemoveObjective(this.player.getConnection(), scoreboard);
+        synchronized (scoreboards) {
+            cleanup.removeObjectives(scoreboards);
+            scoreboards.clear();
         }
-        scoreboards.clear();
-
-        injectRemoveAllEffects(this.player.getConnection(), rewriteData.getEntityId(), this.player.getProtocol());
-        injectClearWeather(this.player.getConnection());
 
-        injectGameMode(this.player.getConnection(), packet.getPlayerGameType());
-        injectSetDifficulty(this.player.getConnection(), packet.getDifficulty());
-        injectGameRules(this.player.getConnection(), packet.getGamerules());
+        cleanup.removeAllEffects(rewriteData.getEntityId(), this.player.getProtocol())
+                .clearWeather()
+                .gameMode(packet.getPlayerGameType())
+                .difficulty(packet.getDifficulty())
+                .gameRules(packet.getGamerules())
+                .send();
 
         this.connection.sendPacket(this.player.getLoginData().getChunkRadius());
 
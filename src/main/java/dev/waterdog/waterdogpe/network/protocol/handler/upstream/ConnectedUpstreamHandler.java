@@ -17,9 +17,13 @@ package dev.waterdog.waterdogpe.network.protocol.handler.upstream;
 
 import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.FlushCoalescer;
+import dev.waterdog.waterdogpe.network.protocol.handler.PacketFilter;
+import dev.waterdog.waterdogpe.network.protocol.handler.PluginPacketHandler;
 import dev.waterdog.waterdogpe.network.protocol.handler.ProxyPacketHandler;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.RewriteMaps;
 import lombok.Setter;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.data.PlayerActionType;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.*;
@@ -31,6 +35,8 @@ import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import dev.waterdog.waterdogpe.network.protocol.Signals;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
+import java.util.Collection;
+
 /**
  * Main handler for handling packets received from upstream.
  */
@@ -46,10 +52,24 @@ public class ConnectedUpstreamHandler extends AbstractUpstreamHandler implements
     @Override
     public void sendProxiedBatch(BedrockBatchWrapper batch) {
         if (this.targetConnection != null && this.targetConnection.isConnected()) {
-            this.targetConnection.sendPacket(batch.retain());
+            FlushCoalescer coalescer = this.player.getConnection().getPeer().getFlushCoalescer();
+            BedrockBatchWrapper retained = batch.retain();
+            if (coalescer == null || !coalescer.write(this.targetConnection, retained)) {
+                this.targetConnection.sendPacket(retained);
+            }
         }
     }
 
+    @Override
+    public PacketFilter getPacketFilter(BedrockCodec codec) {
+        return PacketFilter.of(codec, this.getClass());
+    }
+
+    @Override
+    public Collection<PluginPacketHandler> getPluginPacketHandlers() {
+        return this.player.getPluginPacketHandlers();
+    }
+
     @Override
     public final PacketSignal handle(RequestChunkRadiusPacket packet) {
         this.player.getLoginData().setChunkRadius(packet);
@@ -71,12 +91,21 @@ public class ConnectedUpstreamHandler extends AbstractUpstreamHandler implements
 
     @Override
     public final PacketSignal handle(TextPacket packet) {
-        PlayerChatEvent event = new PlayerChatEvent(this.player, packet.getMessage());
-        ProxyServer.getInstance().getEventManager().callEvent(event);
-        packet.setMessage(event.getMessage());
+        String message = packet.getMessage();
+        PlayerChatEvent event = ProxyServer.getInstance().getEventManager().callEvent(PlayerChatEvent.class,
+                () -> new PlayerChatEvent(this.player, message));
+        if (event == null) {
+            return PacketSignal.UNHANDLED;
+        }
+
         if (event.isCancelled()) {
             return Signals.CANCEL;
         }
+
+        if (message.equals(event.getMessage())) {
+            return PacketSignal.UNHANDLED; // keep original buffer so batch can be passed through
+        }
+        packet.setMessage(event.getMessage());
         return PacketSignal.HANDLED;
     }
 
@@ -18,6 +18,7 @@ package dev.waterdog.waterdogpe.network.protocol.handler.upstream;
 import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.WaterdogPE;
 import dev.waterdog.waterdogpe.event.defaults.PlayerAuthenticatedEvent;
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
 import dev.waterdog.waterdogpe.network.connection.peer.BedrockServerSession;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
@@ -26,6 +27,7 @@ import dev.waterdog.waterdogpe.network.protocol.user.HandshakeEntry;
 import dev.waterdog.waterdogpe.network.protocol.user.HandshakeUtils;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import dev.waterdog.waterdogpe.security.SecurityManager;
+import io.netty.channel.Channel;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.codec.compat.BedrockCompat;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
@@ -34,6 +36,8 @@ import org.cloudburstmc.protocol.common.PacketSignal;
 
 import java.net.InetSocketAddress;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * The Pipeline Handler handling the login handshake part of the initial connect. Will be replaced after success.
@@ -141,16 +145,46 @@ public class LoginUpstreamHandler implements BedrockPacketHandler {
             this.compression = CompressionType.ZLIB;
         }
 
-        HandshakeEntry handshakeEntry = null;
         boolean strictAuth = this.proxy.getConfiguration().isOnlineMode();
-
         this.session.setLogging(WaterdogPE.version().debug());
+
+        // Chain verification is expensive, so it is done on the login verifier threads.
+        // Reading is paused until the result is processed back on the event loop.
+        Channel channel = this.session.getPeer().getChannel();
+        channel.config().setAutoRead(false);
+
+        ProtocolVersion finalProtocol = protocol;
+        this.proxy.getLoginVerifier().verify(this.session, packet, protocol, strictAuth).whenComplete((handshakeEntry, error) -> channel.eventLoop().execute(() -> {
+            channel.config().setAutoRead(true);
+            if (this.session.isConnected()) {
+                this.onHandshakeProcessed(handshakeEntry, error instanceof CompletionException ? error.getCause() : error, finalProtocol, strictAuth);
+            }
+        }));
+        return PacketSignal.HANDLED;
+    }
+
+    private void onHandshakeProcessed(HandshakeEntry handshakeEntry, Throwable error, ProtocolVersion protocol, boolean strictAuth) {
+        if (error instanceof RejectedExecutionException) {
+            NetworkMetrics metrics = this.proxy.getNetworkMetrics();
+            if (metrics != null) {
+                metrics.loginVerificationRejected();
+            }
+            this.onLoginFailed(null, error, "Too many players are logging in, please try again later");
+            this.proxy.getLogger().warning("[{}] <-> Login verification queue is full, disconnecting", this.session.getSocketAddress());
+            return;
+        }
+
+        if (error != null) {
+            this.onLoginFailed(null, error, "Login failed: " + error.getMessage());
+            this.proxy.getLogger().error("[{}] Unable to complete login", this.session.getSocketAddress(), error);
+            return;
+        }
+
         try {
-            handshakeEntry = HandshakeUtils.processHandshake(this.session, packet, protocol, strictAuth);
             if (!handshakeEntry.isXboxAuthed() && strictAuth) {
                 this.onLoginFailed(handshakeEntry, null, "disconnectionScreen.notAuthenticated");
                 this.proxy.getLogger().info("[{}|{}] <-> Upstream has disconnected due to failed XBOX authentication!", this.session.getSocketAddress(), handshakeEntry.getDisplayName());
-                return PacketSignal.HANDLED;
+                return;
             }
 
             // Thank you Mojang: this version includes protocol changes, but protocol version was not increased.
@@ -169,13 +203,13 @@ public class LoginUpstreamHandler implements BedrockPacketHandler {
             this.proxy.getEventManager().callEvent(loginEvent);
             if (loginEvent.isCancelled()) {
                 this.session.disconnect(loginEvent.getCancelReason());
-                return PacketSignal.HANDLED;
+                return;
             }
 
             this.player = loginEvent.getBaseClass().getConstructor(ProxyServer.class, BedrockServerSession.class, CompressionType.class, LoginData.class)
                     .newInstance(this.proxy, this.session, this.compression, loginData);
             if (!this.proxy.getPlayerManager().registerPlayer(this.player)) {
-                return PacketSignal.HANDLED;
+                return;
             }
 
             if (this.proxy.getConfiguration().isUpstreamEncryption()) {
@@ -187,7 +221,6 @@ public class LoginUpstreamHandler implements BedrockPacketHandler {
             this.onLoginFailed(handshakeEntry, e, "Login failed: " + e.getMessage());
             this.proxy.getLogger().error("[{}] Unable to complete login", this.session.getSocketAddress(), e);
         }
-        return PacketSignal.HANDLED;
     }
 
     @Override
@@ -15,19 +15,25 @@
 
 package dev.waterdog.waterdogpe.network.protocol.rewrite;
 
+import io.netty.buffer.ByteBuf;
 import it.unimi.dsi.fastutil.longs.LongListIterator;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataMap;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataType;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataTypes;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityLinkData;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.*;
+import dev.waterdog.waterdogpe.network.protocol.handler.PacketFilter;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.types.RewriteData;
 import dev.waterdog.waterdogpe.network.protocol.user.PlayerRewriteUtils;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import org.cloudburstmc.protocol.common.PacketSignal;
+import org.cloudburstmc.protocol.common.util.VarInts;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.function.LongConsumer;
 
@@ -49,6 +55,16 @@ public class EntityMap implements BedrockPacketHandler {
             EntityDataTypes.AGENT_EID
     );
 
+    /**
+     * Packets which start with unsigned varlong runtime entity id, so the id can be rewritten
+     * directly in the encoded buffer.
+     */
+    private static final List<Class<? extends BedrockPacket>> RAW_REWRITE_PACKETS = List.of(
+            MoveEntityAbsolutePacket.class,
+            MoveEntityDeltaPacket.class,
+            SetEntityMotionPacket.class
+    );
+
     private final ProxiedPlayer player;
     private final RewriteData rewrite;
 
@@ -61,6 +77,52 @@ public class EntityMap implements BedrockPacketHandler {
         return this.player.canRewrite() ? packet.handle(this) : PacketSignal.UNHANDLED;
     }
 
+    public static PacketFilter getRawRewriteFilter(BedrockCodec codec) {
+        return PacketFilter.ofPackets(codec, RAW_REWRITE_PACKETS);
+    }
+
+    /**
+     * Rewrites runtime entity id of packets in {@link #getRawRewriteFilter(BedrockCodec)} without decoding them.
+     * If the encoded id length does not change, the buffer is patched in place.
+     * @return HANDLED if the packet buffer was changed
+     */
+    public PacketSignal doRawRewrite(BedrockPacketWrapper wrapper) {
+        if (!this.player.canRewrite()) {
+            return PacketSignal.UNHANDLED;
+        }
+
+        ByteBuf buffer = wrapper.getPacketBuffer();
+        int offset = buffer.readerIndex() + wrapper.getHeaderLength();
+
+        ByteBuf reader = buffer.duplicate().readerIndex(offset);
+        long from = VarInts.readUnsignedLong(reader);
+        int length = reader.readerIndex() - offset;
+
+        long rewriteId = PlayerRewriteUtils.rewriteId(from, this.rewrite.getEntityId(), this.rewrite.getOriginalEntityId());
+        if (rewriteId == from) {
+            return PacketSignal.UNHANDLED;
+        }
+
+        int rewriteLength = varLongSize(rewriteId);
+        if (rewriteLength == length && !buffer.isReadOnly()) {
+            VarInts.writeUnsignedLong(buffer.duplicate().writerIndex(offset), rewriteId);
+            return PacketSignal.HANDLED;
+        }
+
+        ByteBuf rewritten = buffer.alloc().ioBuffer(buffer.readableBytes() - length + rewriteLength);
+        rewritten.writeBytes(buffer, buffer.readerIndex(), wrapper.getHeaderLength());
+        VarInts.writeUnsignedLong(rewritten, rewriteId);
+        rewritten.writeBytes(buffer, offset + length, buffer.writerIndex() - offset - length);
+
+        wrapper.setPacketBuffer(rewritten);
+        buffer.release();
+        return PacketSignal.HANDLED;
+    }
+
+    private static int varLongSize(long value) {
+        return (63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
     private PacketSignal rewriteId(long from, LongConsumer setter) {
         long rewriteId = PlayerRewriteUtils.rewriteId(from, this.rewrite.getEntityId(), this.rewrite.getOriginalEntityId());
         if (rewriteId == from) {
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.user;
+
+import dev.waterdog.waterdogpe.ProxyServer;
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
+
+import java.security.interfaces.ECPublicKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded caches used by {@link HandshakeUtils} to avoid repeated key decoding and signature verification.
+ * Mojang keys and chain links signed by Mojang repeat across logins of the same player,
+ * for example when reconnecting after a kick.
+ */
+final class HandshakeCache {
+    private static final int KEY_CACHE_SIZE = 1024;
+    private static final int VERIFIED_CACHE_SIZE = 2048;
+    private static final long VERIFIED_TTL = TimeUnit.MINUTES.toNanos(5);
+
+    private final Map<String, ECPublicKey> keys = new LruMap<>(KEY_CACHE_SIZE);
+    private final Map<String, VerifiedLink> verifiedLinks = new LruMap<>(VERIFIED_CACHE_SIZE);
+
+    public ECPublicKey getKey(String b64) {
+        ECPublicKey key;
+        synchronized (this.keys) {
+            key = this.keys.get(b64);
+        }
+
+        NetworkMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.publicKeyCacheLookup(key != null);
+        }
+        return key;
+    }
+
+    public void putKey(String b64, ECPublicKey key) {
+        synchronized (this.keys) {
+            this.keys.put(b64, key);
+        }
+    }
+
+    /**
+     * @return true if the given JWT was recently verified with the same key
+     */
+    public boolean isVerified(String jwt, ECPublicKey key) {
+        VerifiedLink link;
+        synchronized (this.verifiedLinks) {
+            link = this.verifiedLinks.get(jwt);
+            if (link != null && System.nanoTime() - link.verifiedAt() > VERIFIED_TTL) {
+                this.verifiedLinks.remove(jwt);
+                link = null;
+            }
+        }
+
+        boolean verified = link != null && link.key().equals(key);
+        NetworkMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.verifiedChainCacheLookup(verified);
+        }
+        return verified;
+    }
+
+    public void setVerified(String jwt, ECPublicKey key) {
+        synchronized (this.verifiedLinks) {
+            this.verifiedLinks.put(jwt, new VerifiedLink(key, System.nanoTime()));
+        }
+    }
+
+    private static NetworkMetrics getMetrics() {
+        ProxyServer proxy = ProxyServer.getInstance();
+        return proxy == null ? null : proxy.getNetworkMetrics();
+    }
+
+    private record VerifiedLink(ECPublicKey key, long verifiedAt) {
+    }
+
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return this.size() > this.maxSize;
+        }
+    }
+}
@@ -52,6 +52,8 @@ import java.util.UUID;
  */
 public class HandshakeUtils {
 
+    private static final HandshakeCache CACHE = new HandshakeCache();
+
     private static final ECPublicKey MOJANG_PUBLIC_KEY_OLD;
     private static final ECPublicKey MOJANG_PUBLIC_KEY;
 
@@ -84,7 +86,8 @@ public class HandshakeUtils {
         boolean authed = false;
         Iterator<String> iterator = chainArray.iterator();
         while(iterator.hasNext()){
-            SignedJWT jwt = SignedJWT.parse(iterator.next());
+            String token = iterator.next();
+            SignedJWT jwt = SignedJWT.parse(token);
 
             URI x5u = jwt.getHeader().getX509CertURL();
             if (x5u == null) {
@@ -100,11 +103,15 @@ public class HandshakeUtils {
                 throw new IllegalArgumentException("Key does not match");
             }
 
-            if (!verifyJwt(jwt, lastKey)) {
-                if (strict) {
-                    throw new JOSEException("Login JWT was not valid");
+            // Skip signature check if the same chain link was recently verified with this key
+            if (!CACHE.isVerified(token, lastKey)) {
+                if (!verifyJwt(jwt, lastKey)) {
+                    if (strict) {
+                        throw new JOSEException("Login JWT was not valid");
+                    }
+                    return false;
                 }
-                return false;
+                CACHE.setVerified(token, lastKey);
             }
 
             if (MOJANG_PUBLIC_KEY.equals(lastKey) || MOJANG_PUBLIC_KEY_OLD.equals(lastKey)) {
@@ -151,7 +158,12 @@ public class HandshakeUtils {
     }
 
     public static ECPublicKey generateKey(String b64) throws NoSuchAlgorithmException, InvalidKeySpecException {
-        return (ECPublicKey) KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(b64)));
+        ECPublicKey key = CACHE.getKey(b64);
+        if (key == null) {
+            key = (ECPublicKey) KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(b64)));
+            CACHE.putKey(b64, key);
+        }
+        return key;
     }
 
     public static void signJwt(JWSObject jws, ECPrivateKey key) throws JOSEException {
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.user;
+
+import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import dev.waterdog.waterdogpe.utils.ThreadFactoryBuilder;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
+import org.cloudburstmc.protocol.bedrock.BedrockSession;
+import org.cloudburstmc.protocol.bedrock.packet.LoginPacket;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs login chain verification on a dedicated bounded thread pool, so JWT parsing and signature
+ * verification do not block the network event loops during join storms.
+ * Logins which do not fit into the queue are rejected right away.
+ */
+public class LoginVerifier {
+
+    private final ThreadPoolExecutor executor;
+
+    public LoginVerifier(NetworkSettings settings) {
+        ThreadFactoryBuilder builder = ThreadFactoryBuilder.builder()
+                .format("Login Verifier - #%d")
+                .daemon(true)
+                .build();
+        int threads = Math.max(1, settings.getLoginVerificationThreads());
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, settings.getLoginVerificationQueue())), builder, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Verifies the login chain using {@link HandshakeUtils#processHandshake(BedrockSession, LoginPacket, ProtocolVersion, boolean)}.
+     * @return future completed on the verifier thread. Fails with {@link RejectedExecutionException} if the queue is full.
+     */
+    public CompletableFuture<HandshakeEntry> verify(BedrockSession session, LoginPacket packet, ProtocolVersion protocol, boolean strict) {
+        CompletableFuture<HandshakeEntry> future = new CompletableFuture<>();
+        try {
+            this.executor.execute(() -> {
+                try {
+                    future.complete(HandshakeUtils.processHandshake(session, packet, protocol, strict));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public int getQueueSize() {
+        return this.executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+}
@@ -132,68 +132,99 @@ public class PlayerRewriteUtils {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createGameMode(gameMode));
+    }
+
+    public static SetPlayerGameTypePacket createGameMode(GameType gameMode) {
         SetPlayerGameTypePacket packet = new SetPlayerGameTypePacket();
         packet.setGamemode(gameMode.ordinal());
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectGameRules(ProxiedConnection session, List<GameRuleData<?>> gameRules) {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createGameRules(gameRules));
+    }
+
+    public static GameRulesChangedPacket createGameRules(List<GameRuleData<?>> gameRules) {
         GameRulesChangedPacket packet = new GameRulesChangedPacket();
         packet.getGameRules().addAll(gameRules);
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectClearWeather(ProxiedConnection session) {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createStopThunder());
+        session.sendPacket(createStopRain());
+    }
+
+    public static LevelEventPacket createStopThunder() {
         LevelEventPacket stopThunder = new LevelEventPacket();
         stopThunder.setData(0);
         stopThunder.setPosition(Vector3f.ZERO);
         stopThunder.setType(LevelEvent.STOP_THUNDERSTORM);
-        session.sendPacket(stopThunder);
+        return stopThunder;
+    }
 
+    public static LevelEventPacket createStopRain() {
         LevelEventPacket stopRain = new LevelEventPacket();
         stopRain.setType(LevelEvent.STOP_RAINING);
         stopRain.setData(10000);
         stopRain.setPosition(Vector3f.ZERO);
-        session.sendPacket(stopRain);
+        return stopRain;
     }
 
     public static void injectSetDifficulty(ProxiedConnection session, int difficulty) {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createSetDifficulty(difficulty));
+    }
+
+    public static SetDifficultyPacket createSetDifficulty(int difficulty) {
         SetDifficultyPacket packet = new SetDifficultyPacket();
         packet.setDifficulty(difficulty);
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectRemoveEntityLink(ProxiedConnection session, long vehicleId, long riderId) {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createRemoveEntityLink(vehicleId, riderId));
+    }
+
+    public static SetEntityLinkPacket createRemoveEntityLink(long vehicleId, long riderId) {
         SetEntityLinkPacket packet = new SetEntityLinkPacket();
         packet.setEntityLink(new EntityLinkData(vehicleId, riderId, EntityLinkData.Type.REMOVE, false, false));
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectRemoveEntity(ProxiedConnection session, long runtimeId) {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createRemoveEntity(runtimeId));
+    }
+
+    public static RemoveEntityPacket createRemoveEntity(long runtimeId) {
         RemoveEntityPacket packet = new RemoveEntityPacket();
         packet.setUniqueEntityId(runtimeId);
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectRemoveAllPlayers(ProxiedConnection session, Collection<UUID> playerList) {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createRemoveAllPlayers(playerList));
+    }
+
+    public static PlayerListPacket createRemoveAllPlayers(Collection<UUID> playerList) {
         PlayerListPacket packet = new PlayerListPacket();
         packet.setAction(PlayerListPacket.Action.REMOVE);
         List<PlayerListPacket.Entry> entries = new ArrayList<>();
@@ -201,7 +232,7 @@ public class PlayerRewriteUtils {
             entries.add(new PlayerListPacket.Entry(uuid));
         }
         packet.getEntries().addAll(entries);
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectRemoveAllEffects(ProxiedConnection session, long runtimeId, ProtocolVersion version) {
@@ -209,53 +240,77 @@ public class PlayerRewriteUtils {
             return;
         }
 
-        int effectsCount = version.isAfter(ProtocolVersion.MINECRAFT_PE_1_19_0) ? 30 : 28;
+        int effectsCount = getEffectsCount(version);
         for (int i = 0; i < effectsCount; i++) {
             injectRemoveEntityEffect(session, runtimeId, i);
         }
+        session.sendPacket(createClearEffectData(runtimeId));
+    }
+
+    public static int getEffectsCount(ProtocolVersion version) {
+        return version.isAfter(ProtocolVersion.MINECRAFT_PE_1_19_0) ? 30 : 28;
+    }
+
+    public static SetEntityDataPacket createClearEffectData(long runtimeId) {
         SetEntityDataPacket packet = new SetEntityDataPacket();
         packet.getMetadata().putType(EntityDataTypes.AUX_VALUE_DATA, (short) 0);
         packet.getMetadata().putType(EntityDataTypes.EFFECT_COLOR, 0);
         packet.getMetadata().putType(EntityDataTypes.EFFECT_AMBIENCE, (byte) 0);
         packet.setRuntimeEntityId(runtimeId);
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectRemoveEntityEffect(ProxiedConnection session, long runtimeId, int effect) {
+        session.sendPacket(createRemoveEntityEffect(runtimeId, effect));
+    }
+
+    public static MobEffectPacket createRemoveEntityEffect(long runtimeId, int effect) {
         MobEffectPacket packet = new MobEffectPacket();
         packet.setRuntimeEntityId(runtimeId);
         packet.setEffectId(effect);
         packet.setEvent(MobEffectPacket.Event.REMOVE);
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectRemoveObjective(ProxiedConnection session, String objectiveId) {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createRemoveObjective(objectiveId));
+    }
+
+    public static RemoveObjectivePacket createRemoveObjective(String objectiveId) {
         RemoveObjectivePacket packet = new RemoveObjectivePacket();
         packet.setObjectiveId(objectiveId);
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectRemoveScoreInfos(ProxiedConnection session, Long2ObjectMap<ScoreInfo> scoreInfos) {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createRemoveScoreInfos(scoreInfos));
+    }
+
+    public static SetScorePacket createRemoveScoreInfos(Long2ObjectMap<ScoreInfo> scoreInfos) {
         SetScorePacket packet = new SetScorePacket();
         packet.setAction(SetScorePacket.Action.REMOVE);
         packet.getInfos().addAll(scoreInfos.values());
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectRemoveBossbar(ProxiedConnection session, long bossbarId) {
         if (session == null || !session.isConnected()) {
             return;
         }
+        session.sendPacket(createRemoveBossbar(bossbarId));
+    }
+
+    public static BossEventPacket createRemoveBossbar(long bossbarId) {
         BossEventPacket packet = new BossEventPacket();
         packet.setAction(BossEventPacket.Action.REMOVE);
         packet.setBossUniqueEntityId(bossbarId);
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectPosition(ProxiedConnection session, Vector3f position, Vector2f rotation, long runtimeId) {
@@ -341,11 +396,15 @@ public class PlayerRewriteUtils {
             return;
         }
 
+        session.sendPacket(createChunkCacheBlobs(blobs));
+    }
+
+    public static ClientCacheMissResponsePacket createChunkCacheBlobs(LongSet blobs) {
         ClientCacheMissResponsePacket packet = new ClientCacheMissResponsePacket();
         for (long blob : blobs) {
             packet.getBlobs().put(blob, emptyChunkRaw);
         }
-        session.sendPacket(packet);
+        return packet;
     }
 
     public static void injectEntityImmobile(ProxiedConnection session, long runtimeId, boolean immobile) {
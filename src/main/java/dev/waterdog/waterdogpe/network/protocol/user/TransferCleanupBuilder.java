@@ -0,0 +1,157 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.user;
+
+import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.BatchFlags;
+import dev.waterdog.waterdogpe.network.connection.codec.packet.PooledPacketWrapper;
+import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.cloudburstmc.protocol.bedrock.data.GameRuleData;
+import org.cloudburstmc.protocol.bedrock.data.GameType;
+import org.cloudburstmc.protocol.bedrock.data.ScoreInfo;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static dev.waterdog.waterdogpe.network.protocol.user.PlayerRewriteUtils.*;
+
+/**
+ * Collects packets which remove client-sided data on server switch into few batches,
+ * which are then written to the client with a single flush instead of sending every packet separately.
+ */
+public class TransferCleanupBuilder {
+    /**
+     * Maximum amount of packets in one batch. Keeps compression of one batch short,
+     * so other players sharing the event loop are not delayed.
+     */
+    public static final int MAX_BATCH_PACKETS = 256;
+
+    private final ProxiedConnection connection;
+    private final List<BedrockBatchWrapper> batches = new ObjectArrayList<>();
+    private BedrockBatchWrapper batch;
+    private int packetCount;
+
+    public TransferCleanupBuilder(ProxiedConnection connection) {
+        this.connection = connection;
+    }
+
+    public TransferCleanupBuilder addPacket(BedrockPacket packet) {
+        if (this.batch == null || this.batch.getPackets().size() >= MAX_BATCH_PACKETS) {
+            this.batch = BedrockBatchWrapper.newInstance();
+            this.batch.setFlag(BatchFlags.SKIP_QUEUE);
+            this.batches.add(this.batch);
+        }
+        this.batch.getPackets().add(PooledPacketWrapper.newInstance(this.connection.getSubClientId(), 0, packet, null));
+        this.packetCount++;
+        return this;
+    }
+
+    public TransferCleanupBuilder chunkCacheBlobs(LongSet blobs) {
+        if (!blobs.isEmpty()) {
+            this.addPacket(createChunkCacheBlobs(blobs));
+        }
+        return this;
+    }
+
+    public TransferCleanupBuilder removeEntityLinks(Long2LongMap entityLinks) {
+        for (Long2LongMap.Entry entry : entityLinks.long2LongEntrySet()) {
+            this.addPacket(createRemoveEntityLink(entry.getLongKey(), entry.getLongValue()));
+        }
+        return this;
+    }
+
+    public TransferCleanupBuilder removeBossbars(LongCollection bossbars) {
+        for (long bossbarId : bossbars) {
+            this.addPacket(createRemoveBossbar(bossbarId));
+        }
+        return this;
+    }
+
+    public TransferCleanupBuilder removePlayers(Collection<UUID> playerList) {
+        return this.addPacket(createRemoveAllPlayers(playerList));
+    }
+
+    public TransferCleanupBuilder removeEntities(LongCollection entities) {
+        for (long entityId : entities) {
+            this.addPacket(createRemoveEntity(entityId));
+        }
+        return this;
+    }
+
+    public TransferCleanupBuilder removeScoreInfos(Long2ObjectMap<ScoreInfo> scoreInfos) {
+        return this.addPacket(createRemoveScoreInfos(scoreInfos));
+    }
+
+    public TransferCleanupBuilder removeObjectives(Collection<String> scoreboards) {
+        for (String scoreboard : scoreboards) {
+            this.addPacket(createRemoveObjective(scoreboard));
+        }
+        return this;
+    }
+
+    public TransferCleanupBuilder removeAllEffects(long runtimeId, ProtocolVersion version) {
+        int effectsCount = getEffectsCount(version);
+        for (int i = 0; i < effectsCount; i++) {
+            this.addPacket(createRemoveEntityEffect(runtimeId, i));
+        }
+        return this.addPacket(createClearEffectData(runtimeId));
+    }
+
+    public TransferCleanupBuilder clearWeather() {
+        this.addPacket(createStopThunder());
+        return this.addPacket(createStopRain());
+    }
+
+    public TransferCleanupBuilder gameMode(GameType gameMode) {
+        return this.addPacket(createGameMode(gameMode));
+    }
+
+    public TransferCleanupBuilder difficulty(int difficulty) {
+        return this.addPacket(createSetDifficulty(difficulty));
+    }
+
+    public TransferCleanupBuilder gameRules(List<GameRuleData<?>> gameRules) {
+        return this.addPacket(createGameRules(gameRules));
+    }
+
+    public int getPacketCount() {
+        return this.packetCount;
+    }
+
+    /**
+     * Writes all collected batches to the connection and flushes them at once.
+     * Builder must not be used after this call.
+     */
+    public void send() {
+        List<BedrockBatchWrapper> batches = new ObjectArrayList<>(this.batches);
+        this.batches.clear();
+        this.batch = null;
+
+        if (this.connection == null || !this.connection.isConnected()) {
+            batches.forEach(BedrockBatchWrapper::release);
+            return;
+        }
+        this.connection.sendPackets(batches);
+    }
+}
@@ -52,8 +52,15 @@ public class BedrockServerInfo extends ServerInfo {
         ProtocolVersion version = player.getProtocol();
         NetworkSettings networkSettings = player.getProxy().getNetworkSettings();
 
-        // Just pick EventLoop here, and we can use it for our promise too
-        EventLoop eventLoop = player.getProxy().getWorkerEventLoopGroup().next();
+        // Prefer EventLoop of the player connection, so packets can be forwarded without switching threads.
+        // We can use it for our promise too
+        EventLoop eventLoop = null;
+        if (networkSettings.downstreamEventLoopAffinity() && player.getConnection() != null) {
+            eventLoop = player.getConnection().getPeer().getChannel().eventLoop();
+        }
+        if (eventLoop == null) {
+            eventLoop = player.getProxy().getWorkerEventLoopGroup().next();
+        }
         Promise<ClientConnection> promise = eventLoop.newPromise();
         new Bootstrap()
                 .channelFactory(RakChannelFactory.client(EventLoops.getChannelType().getDatagramChannel()))
@@ -16,11 +16,13 @@
 package dev.waterdog.waterdogpe.network.serverinfo;
 
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import io.netty.util.concurrent.Future;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectSets;
 import lombok.ToString;
+import org.cloudburstmc.protocol.common.util.Preconditions;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
@@ -39,6 +41,10 @@ public abstract class ServerInfo {
     private final InetSocketAddress address;
     private final InetSocketAddress publicAddress;
 
+    private volatile CompressionType compression;
+    private volatile int compressionLevel = -1;
+    private volatile boolean dictionaryCompression;
+
     private final Set<ClientConnection> connections = ObjectSets.synchronize(new ObjectOpenHashSet<>());
     private final Set<ProxiedPlayer> players = ObjectSets.synchronize(new ObjectOpenHashSet<>());
 
@@ -98,4 +104,55 @@ public abstract class ServerInfo {
     public InetSocketAddress getPublicAddress() {
         return this.publicAddress;
     }
+
+    /**
+     * @return compression algorithm used when sending packets to this server or null if the algorithm requested by the server is used
+     */
+    public CompressionType getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Overrides compression algorithm used when sending packets to this server.
+     * This is only applicable on 1.20.60 and newer versions, which allow each batch to use different compression.
+     * Packets received from the server are always decompressed using the algorithm they were sent with.
+     * Change affects only new connections.
+     * @param compression compression type with bedrock algorithm, or null to use algorithm requested by the server
+     */
+    public void setCompression(CompressionType compression) {
+        Preconditions.checkArgument(compression == null || compression.getBedrockAlgorithm() != null, "Compression must be supported by bedrock");
+        this.compression = compression;
+    }
+
+    /**
+     * @return zlib compression level used when sending packets to this server or -1 if downstream_compression_level is used
+     */
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    /**
+     * Overrides zlib compression level used when sending packets to this server. Change affects only new connections.
+     * @param compressionLevel compression level in range 0-9, or -1 to use downstream_compression_level
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        Preconditions.checkArgument(compressionLevel >= -1 && compressionLevel <= 9, "Compression level must be in range 0-9");
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * @return whether the server understands {@link CompressionType#ZLIB_DICTIONARY} with the same dictionary as the proxy
+     */
+    public boolean isDictionaryCompression() {
+        return this.dictionaryCompression;
+    }
+
+    /**
+     * Marks the server as supporting {@link CompressionType#ZLIB_DICTIONARY}. If the proxy has a dictionary loaded,
+     * packets sent to this server by 1.20.60 and newer players are compressed using the dictionary.
+     * Takes precedence over {@link #setCompression(CompressionType)}. Change affects only new connections.
+     */
+    public void setDictionaryCompression(boolean dictionaryCompression) {
+        this.dictionaryCompression = dictionaryCompression;
+    }
 }
@@ -69,6 +69,10 @@ public class ServerInfoMap {
     }
 
     public ServerInfo fromServerEntry(ServerEntry entry) {
-        return this.createServerInfo(entry.getServerName(), entry.getAddress(), entry.getPublicAddress(), entry.getServerInfoType());
+        ServerInfo serverInfo = this.createServerInfo(entry.getServerName(), entry.getAddress(), entry.getPublicAddress(), entry.getServerInfoType());
+        serverInfo.setCompression(entry.getCompressionType());
+        serverInfo.setCompressionLevel(entry.getCompressionLevel());
+        serverInfo.setDictionaryCompression(entry.isDictionaryCompression());
+        return serverInfo;
     }
 }
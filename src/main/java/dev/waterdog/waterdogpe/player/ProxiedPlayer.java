@@ -686,9 +686,9 @@ public class ProxiedPlayer implements CommandSender {
         Permission perm = this.permissions.get(permission.toLowerCase());
         boolean result = perm != null && perm.getValue();
 
-        PlayerPermissionCheckEvent event = new PlayerPermissionCheckEvent(this, permission, result);
-        this.getProxy().getEventManager().callEvent(event);
-        return event.hasPermission();
+        PlayerPermissionCheckEvent event = this.getProxy().getEventManager().callEvent(PlayerPermissionCheckEvent.class,
+                () -> new PlayerPermissionCheckEvent(this, permission, result));
+        return event == null ? result : event.hasPermission();
     }
 
     /**
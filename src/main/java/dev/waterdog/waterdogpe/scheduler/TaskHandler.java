@@ -17,6 +17,8 @@ package dev.waterdog.waterdogpe.scheduler;
 
 import dev.waterdog.waterdogpe.logger.MainLogger;
 
+import java.util.concurrent.Future;
+
 public class TaskHandler<T extends Runnable> {
 
     private final int taskId;
@@ -30,7 +32,18 @@ public class TaskHandler<T extends Runnable> {
     private int lastRunTick;
     private int nextRunTick;
 
-    private boolean cancelled;
+    private volatile boolean cancelled;
+
+    // Timing wheel links, only accessed from the scheduler tick thread
+    TaskHandler<?> wheelPrev;
+    TaskHandler<?> wheelNext;
+    int wheelLevel = -1;
+    int wheelSlot;
+    // Scheduler notified on cancel, cleared once the task has finished
+    WaterdogScheduler scheduler;
+    // Set if the task runs on an event loop instead of the timing wheel
+    volatile Future<?> future;
+    Runnable onCancel;
 
     public TaskHandler(T task, int taskId, boolean async) {
         this.task = task;
@@ -63,6 +76,18 @@ public class TaskHandler<T extends Runnable> {
             ((Task) this.task).onCancel();
         }
         this.cancelled = true;
+
+        if (this.future != null) {
+            this.future.cancel(false);
+        }
+
+        if (this.onCancel != null) {
+            this.onCancel.run();
+        }
+
+        if (this.scheduler != null) {
+            this.scheduler.onTaskCancelled(this);
+        }
     }
 
     public boolean calculateNextTick(int currentTick) {
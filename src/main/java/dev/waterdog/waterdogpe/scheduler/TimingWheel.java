@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.scheduler;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Hierarchical timing wheel holding scheduled tasks by their next run tick.
+ * Each of the {@link #LEVELS} wheels has 64 slots, where slots of the first wheel are single ticks
+ * and slots of every next wheel span the whole previous wheel. Once the first wheel wraps around,
+ * tasks of the matching slot in the next wheel are cascaded down. Tasks are linked directly into
+ * the slots, so adding and removing a task is O(1) and does not allocate.
+ * Not thread safe, all methods must be called from the scheduler tick thread.
+ */
+final class TimingWheel {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final int MAX_DELTA = (1 << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final TaskHandler<?>[][] wheels = new TaskHandler<?>[LEVELS][WHEEL_SIZE];
+    /**
+     * The next tick which was not processed yet.
+     */
+    private int nextTick;
+    private int size;
+
+    TimingWheel(int currentTick) {
+        this.nextTick = currentTick + 1;
+    }
+
+    void add(TaskHandler<?> task) {
+        int expires = Math.max(task.getNextRunTick(), this.nextTick);
+        int delta = expires - this.nextTick;
+        if (delta > MAX_DELTA) {
+            // Too far in future, park in the last slot range and re-insert when it cascades
+            expires = this.nextTick + MAX_DELTA;
+            delta = MAX_DELTA;
+        }
+
+        int level = 0;
+        while (delta >= (1 << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (expires >> (WHEEL_BITS * level)) & WHEEL_MASK;
+
+        TaskHandler<?> head = this.wheels[level][slot];
+        task.wheelLevel = level;
+        task.wheelSlot = slot;
+        task.wheelPrev = null;
+        task.wheelNext = head;
+        if (head != null) {
+            head.wheelPrev = task;
+        }
+        this.wheels[level][slot] = task;
+        this.size++;
+    }
+
+    boolean remove(TaskHandler<?> task) {
+        if (task.wheelLevel < 0) {
+            return false;
+        }
+
+        if (task.wheelPrev == null) {
+            this.wheels[task.wheelLevel][task.wheelSlot] = task.wheelNext;
+        } else {
+            task.wheelPrev.wheelNext = task.wheelNext;
+        }
+
+        if (task.wheelNext != null) {
+            task.wheelNext.wheelPrev = task.wheelPrev;
+        }
+        this.unlink(task);
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Processes all ticks up to the given tick and passes every task which is due to the consumer.
+     * The consumer may add tasks back to the wheel.
+     */
+    void advance(int currentTick, ObjIntConsumer<TaskHandler<?>> consumer) {
+        while (this.nextTick - currentTick <= 0) {
+            int tick = this.nextTick;
+            int index = tick & WHEEL_MASK;
+            if (index == 0) {
+                for (int level = 1; level < LEVELS; level++) {
+                    if (this.cascade(level, (tick >> (WHEEL_BITS * level)) & WHEEL_MASK) != 0) {
+                        break;
+                    }
+                }
+            }
+
+            TaskHandler<?> task = this.detach(0, index);
+            this.nextTick++;
+
+            while (task != null) {
+                TaskHandler<?> next = task.wheelNext;
+                this.unlink(task);
+                consumer.accept(task, tick);
+                task = next;
+            }
+        }
+    }
+
+    private int cascade(int level, int slot) {
+        TaskHandler<?> task = this.detach(level, slot);
+        while (task != null) {
+            TaskHandler<?> next = task.wheelNext;
+            this.unlink(task);
+            this.add(task);
+            task = next;
+        }
+        return slot;
+    }
+
+    private TaskHandler<?> detach(int level, int slot) {
+        TaskHandler<?> head = this.wheels[level][slot];
+        this.wheels[level][slot] = null;
+        for (TaskHandler<?> task = head; task != null; task = task.wheelNext) {
+            this.size--;
+        }
+        return head;
+    }
+
+    private void unlink(TaskHandler<?> task) {
+        task.wheelLevel = -1;
+        task.wheelPrev = null;
+        task.wheelNext = null;
+    }
+
+    int size() {
+        return this.size;
+    }
+}
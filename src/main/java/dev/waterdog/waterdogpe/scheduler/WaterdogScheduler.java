@@ -16,8 +16,13 @@
 package dev.waterdog.waterdogpe.scheduler;
 
 import dev.waterdog.waterdogpe.ProxyServer;
-import dev.waterdog.waterdogpe.utils.ThreadFactoryBuilder;
+import dev.waterdog.waterdogpe.player.ProxiedPlayer;
+import dev.waterdog.waterdogpe.utils.MonitoredExecutor;
+import dev.waterdog.waterdogpe.utils.config.proxy.ProxyConfig;
 import dev.waterdog.waterdogpe.utils.exceptions.SchedulerException;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.EventLoop;
 import io.netty.util.internal.PlatformDependent;
 
 import java.util.*;
@@ -26,14 +31,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class WaterdogScheduler {
 
+    private static final long TICK_MILLIS = 50;
+
     private static WaterdogScheduler instance;
     private final ProxyServer proxy;
 
-    private final ExecutorService threadedExecutor;
+    private final MonitoredExecutor threadedExecutor;
 
     private final Map<Integer, TaskHandler<?>> taskHandlerMap = new ConcurrentHashMap<>();
-    private final Map<Integer, LinkedList<TaskHandler<?>>> assignedTasks = new ConcurrentHashMap<>();
     private final Queue<TaskHandler<?>> pendingTasks = PlatformDependent.newMpscQueue();
+    private final Queue<TaskHandler<?>> cancelledTasks = PlatformDependent.newMpscQueue();
+    private final TimingWheel timingWheel;
 
     private final AtomicInteger currentId = new AtomicInteger();
 
@@ -43,12 +51,11 @@ public class WaterdogScheduler {
         }
         instance = this;
         this.proxy = proxy;
+        this.timingWheel = new TimingWheel(proxy.getCurrentTick());
 
-        ThreadFactoryBuilder builder = ThreadFactoryBuilder.builder()
-                .format("WaterdogScheduler Executor - #%d")
-                .build();
-        int idleThreads = this.proxy.getConfiguration().getIdleThreads();
-        this.threadedExecutor = new ThreadPoolExecutor(idleThreads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), builder);
+        ProxyConfig config = this.proxy.getConfiguration();
+        this.threadedExecutor = MonitoredExecutor.create("WaterdogScheduler", config.getExecutorMode(), config.getIdleThreads(),
+                config.getExecutorMaxThreads(), config.getExecutorQueueSize(), false);
     }
 
     public static WaterdogScheduler getInstance() {
@@ -99,47 +106,136 @@ public class WaterdogScheduler {
         handler.setDelay(delay);
         handler.setPeriod(period);
         handler.setNextRunTick(handler.isDelayed() ? currentTick + delay : currentTick);
+        handler.scheduler = this;
 
+        this.taskHandlerMap.put(taskId, handler);
         this.pendingTasks.offer(handler);
+        return handler;
+    }
+
+    public <T extends Runnable> TaskHandler<T> scheduleDelayed(ProxiedPlayer player, T task, int delay) {
+        return this.addPlayerTask(player, task, delay, 0);
+    }
+
+    public <T extends Runnable> TaskHandler<T> scheduleRepeating(ProxiedPlayer player, T task, int period) {
+        return this.addPlayerTask(player, task, 0, period);
+    }
+
+    public <T extends Runnable> TaskHandler<T> scheduleDelayedRepeating(ProxiedPlayer player, T task, int delay, int period) {
+        return this.addPlayerTask(player, task, delay, period);
+    }
+
+    /**
+     * Schedules a task which runs on the event loop of the player's upstream connection instead of the tick thread.
+     * Such task can access the player's session without switching threads. Delay and period are in ticks.
+     * The task is cancelled automatically once the player disconnects.
+     *
+     * @param player the player whose event loop should run the task
+     * @param task   the task to run
+     * @param delay  delay in ticks before the first run
+     * @param period period in ticks between runs, 0 to run only once
+     */
+    public <T extends Runnable> TaskHandler<T> addPlayerTask(ProxiedPlayer player, T task, int delay, int period) {
+        if (delay < 0 || period < 0) {
+            throw new SchedulerException("Attempted to register a task with negative delay or period!");
+        }
+
+        int taskId = this.currentId.getAndIncrement();
+        TaskHandler<T> handler = new TaskHandler<>(task, taskId, false);
+        handler.setDelay(delay);
+        handler.setPeriod(period);
+        handler.setNextRunTick(this.getCurrentTick() + delay);
+
+        Channel channel = player.getConnection().getPeer().getChannel();
+        if (!channel.isActive()) {
+            handler.cancel();
+            return handler;
+        }
+
+        handler.scheduler = this;
         this.taskHandlerMap.put(taskId, handler);
+
+        ChannelFutureListener closeListener = future -> handler.cancel();
+        handler.onCancel = () -> channel.closeFuture().removeListener(closeListener);
+        channel.closeFuture().addListener(closeListener);
+
+        EventLoop eventLoop = channel.eventLoop();
+        if (handler.isRepeating()) {
+            handler.future = eventLoop.scheduleAtFixedRate(() -> this.runPlayerTask(handler), delay * TICK_MILLIS, period * TICK_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            handler.future = eventLoop.schedule(() -> this.runPlayerTask(handler), delay * TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        // Player might have disconnected before future was assigned
+        if (handler.isCancelled()) {
+            handler.future.cancel(false);
+        }
         return handler;
     }
 
+    private void runPlayerTask(TaskHandler<?> taskHandler) {
+        if (taskHandler.isCancelled()) {
+            return;
+        }
+
+        int currentTick = this.getCurrentTick();
+        taskHandler.onRun(currentTick);
+
+        if (!taskHandler.calculateNextTick(currentTick)) {
+            taskHandler.cancel();
+        }
+    }
+
     public void onTick(int currentTick) {
-        // 1. Assign all tasks to queue by nextRunTick
+        // 1. Add all newly scheduled tasks to the timing wheel
         TaskHandler<?> task;
         while ((task = this.pendingTasks.poll()) != null) {
-            int tick = Math.max(currentTick, task.getNextRunTick());
-            this.assignedTasks.computeIfAbsent(tick, integer -> new LinkedList<>()).add(task);
+            if (!task.isCancelled()) {
+                this.timingWheel.add(task);
+            }
         }
 
-        // 2. Run all tasks assigned to current tick
-        LinkedList<TaskHandler<?>> queued = this.assignedTasks.remove(currentTick);
-        if (queued == null) return;
+        // 2. Unlink cancelled tasks right away instead of waiting for their tick
+        while ((task = this.cancelledTasks.poll()) != null) {
+            this.timingWheel.remove(task);
+        }
+
+        // 3. Run all tasks which are due
+        this.timingWheel.advance(currentTick, this::runTask);
+    }
 
-        for (TaskHandler<?> taskHandler : queued) {
-            this.runTask(taskHandler, currentTick);
+    void onTaskCancelled(TaskHandler<?> taskHandler) {
+        this.taskHandlerMap.remove(taskHandler.getTaskId());
+        if (taskHandler.future == null) {
+            // Only tasks in the timing wheel need to be unlinked
+            this.cancelledTasks.offer(taskHandler);
         }
     }
 
     private void runTask(TaskHandler<?> taskHandler, int currentTick) {
         if (taskHandler.isCancelled()) {
-            this.taskHandlerMap.remove(taskHandler.getTaskId());
             return;
         }
 
         if (taskHandler.isAsync()) {
-            this.threadedExecutor.execute(() -> taskHandler.onRun(currentTick));
+            try {
+                this.threadedExecutor.execute(() -> taskHandler.onRun(currentTick));
+            } catch (RejectedExecutionException e) {
+                this.proxy.getLogger().error("Async task " + taskHandler.getTaskId() + " was rejected by the scheduler executor", e);
+            }
         } else {
             taskHandler.onRun(currentTick);
         }
 
         if (taskHandler.calculateNextTick(currentTick)) {
-            this.pendingTasks.offer(taskHandler);
+            this.timingWheel.add(taskHandler);
             return;
         }
 
-        this.taskHandlerMap.remove(taskHandler.getTaskId()).cancel();
+        // Task is no longer in the wheel, nothing to unlink
+        taskHandler.scheduler = null;
+        this.taskHandlerMap.remove(taskHandler.getTaskId());
+        taskHandler.cancel();
     }
 
     public void shutdown() {
@@ -160,6 +256,13 @@ public class WaterdogScheduler {
         return this.threadedExecutor;
     }
 
+    /**
+     * @return executor of async tasks, which can be used to read active, queued and rejected task counts
+     */
+    public MonitoredExecutor getMonitoredExecutor() {
+        return this.threadedExecutor;
+    }
+
     public int getCurrentTick() {
         return this.proxy.getCurrentTick();
     }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.utils;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.lang.reflect.Method;
+
+/**
+ * Best-effort pinning of threads to CPU cores. The JVM does not provide a way to set thread affinity,
+ * so the OpenHFT Java-Thread-Affinity library is used if it is present on the classpath (for example
+ * added by a plugin or to the proxy class path). Without the library threads are not pinned.
+ */
+@Log4j2
+public final class CpuAffinity {
+    private static final Method ACQUIRE_LOCK = findAcquireLock();
+
+    private CpuAffinity() {
+    }
+
+    private static Method findAcquireLock() {
+        try {
+            return Class.forName("net.openhft.affinity.AffinityLock").getMethod("acquireLock");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return ACQUIRE_LOCK != null;
+    }
+
+    /**
+     * @return runnable which pins the current thread to a free CPU before running the given task
+     */
+    public static Runnable pinned(Runnable runnable) {
+        if (ACQUIRE_LOCK == null) {
+            return runnable;
+        }
+
+        return () -> {
+            try {
+                // Lock is held for the lifetime of the thread
+                ACQUIRE_LOCK.invoke(null);
+            } catch (Throwable t) {
+                log.warn("Unable to pin thread {} to CPU", Thread.currentThread().getName(), t);
+            }
+            runnable.run();
+        };
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.utils;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor used for async events and scheduler tasks which keeps track of active, queued and rejected tasks.
+ * Depending on {@link Mode} tasks are executed by an unbounded cached pool, a bounded pool with a queue
+ * or by virtual threads if the proxy runs on Java 21 or newer.
+ */
+@Log4j2
+public class MonitoredExecutor extends AbstractExecutorService {
+
+    public enum Mode {
+        /**
+         * Unbounded pool creating a new thread whenever all threads are busy.
+         */
+        CACHED,
+        /**
+         * Pool with fixed maximum of threads and a task queue. If the queue is full, tasks are rejected.
+         */
+        BOUNDED,
+        /**
+         * New virtual thread per task. Requires Java 21, falls back to BOUNDED otherwise.
+         */
+        VIRTUAL;
+
+        public static Mode fromString(String name) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final String name;
+    private final Mode mode;
+    private final ExecutorService executor;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private MonitoredExecutor(String name, Mode mode, ExecutorService executor) {
+        this.name = name;
+        this.mode = mode;
+        this.executor = executor;
+    }
+
+    /**
+     * @param name          name of the executor used in thread names and metrics
+     * @param mode          executor mode
+     * @param idleThreads   number of threads kept alive if idle
+     * @param maxThreads    maximum number of threads in BOUNDED mode
+     * @param queueSize     maximum number of queued tasks in BOUNDED mode
+     * @param fair          whether CACHED mode should hand over tasks in FIFO order
+     */
+    public static MonitoredExecutor create(String name, Mode mode, int idleThreads, int maxThreads, int queueSize, boolean fair) {
+        String format = name + " Executor - #%d";
+        if (mode == Mode.VIRTUAL) {
+            ExecutorService executor = createVirtualExecutor(format);
+            if (executor != null) {
+                return new MonitoredExecutor(name, Mode.VIRTUAL, executor);
+            }
+            log.warn("Virtual threads require Java 21 or newer, using bounded executor for {}", name);
+            mode = Mode.BOUNDED;
+        }
+
+        ThreadFactoryBuilder threadFactory = ThreadFactoryBuilder.builder()
+                .format(format)
+                .build();
+
+        if (mode == Mode.CACHED) {
+            return new MonitoredExecutor(name, mode, new ThreadPoolExecutor(idleThreads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(fair), threadFactory));
+        }
+
+        int threads = Math.max(maxThreads, idleThreads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueSize), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return new MonitoredExecutor(name, mode, executor);
+    }
+
+    private static ExecutorService createVirtualExecutor(String format) {
+        try {
+            // Compiled against Java 17, so virtual threads are looked up reflectively
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, format.replace("%d", ""), 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Runnable task = () -> {
+            this.queued.decrementAndGet();
+            this.active.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                this.active.decrementAndGet();
+                this.completed.increment();
+            }
+        };
+
+        this.queued.incrementAndGet();
+        try {
+            this.executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Never run the task on the caller, which is usually an event loop or the tick thread
+            this.queued.decrementAndGet();
+            this.rejected.increment();
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * @return number of tasks currently running
+     */
+    public int getActiveCount() {
+        return this.active.get();
+    }
+
+    /**
+     * @return number of tasks waiting to be started
+     */
+    public int getQueuedCount() {
+        return this.queued.get();
+    }
+
+    /**
+     * @return number of tasks which finished running
+     */
+    public long getCompletedCount() {
+        return this.completed.sum();
+    }
+
+    /**
+     * @return number of tasks which were rejected because the queue was full
+     */
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * @return number of live pool threads or -1 for virtual threads
+     */
+    public int getPoolSize() {
+        return this.executor instanceof ThreadPoolExecutor pool ? pool.getPoolSize() : -1;
+    }
+
+    @Override
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return this.executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.executor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoredExecutor(name=" + this.name + ", mode=" + this.mode + ", active=" + this.getActiveCount() +
+                ", queued=" + this.getQueuedCount() + ", rejected=" + this.getRejectedCount() + ")";
+    }
+}
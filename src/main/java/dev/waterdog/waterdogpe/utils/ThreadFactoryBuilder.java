@@ -32,6 +32,10 @@ public final class ThreadFactoryBuilder implements ThreadFactory {
     @Builder.Default
     private final int priority = Thread.currentThread().getPriority();
     private final Thread.UncaughtExceptionHandler exceptionHandler;
+    /**
+     * Pin created threads to CPU cores if supported, see {@link CpuAffinity}.
+     */
+    private final boolean cpuAffinity;
 
     private static String format(String format, int count) {
         return String.format(Locale.ROOT, format, count);
@@ -39,7 +43,7 @@ public final class ThreadFactoryBuilder implements ThreadFactory {
 
     @Override
     public Thread newThread(Runnable runnable) {
-        Thread thread = backingFactory.newThread(runnable);
+        Thread thread = backingFactory.newThread(this.cpuAffinity ? CpuAffinity.pinned(runnable) : runnable);
 
         if (format != null) {
             thread.setName(format(format, count.getAndIncrement()));
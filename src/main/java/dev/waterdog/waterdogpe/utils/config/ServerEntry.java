@@ -15,6 +15,7 @@
 
 package dev.waterdog.waterdogpe.utils.config;
 
+import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
 import dev.waterdog.waterdogpe.network.serverinfo.ServerInfoType;
 import lombok.ToString;
 import org.cloudburstmc.protocol.common.util.Preconditions;
@@ -31,8 +32,16 @@ public class ServerEntry {
     private final InetSocketAddress address;
     private final InetSocketAddress publicAddress;
     private final String serverType;
+    private final String compression;
+    private final int compressionLevel;
+    private final boolean dictionaryCompression;
 
     public ServerEntry(String serverName, InetSocketAddress address, InetSocketAddress publicAddress, String serverType) {
+        this(serverName, address, publicAddress, serverType, null, -1, false);
+    }
+
+    public ServerEntry(String serverName, InetSocketAddress address, InetSocketAddress publicAddress, String serverType,
+                       String compression, int compressionLevel, boolean dictionaryCompression) {
         Preconditions.checkArgument(serverName != null && !serverName.isEmpty(), "Server name is not valid");
         Preconditions.checkNotNull(address, "Server address can not be null");
         Preconditions.checkNotNull(serverType, "ServerInfoType can not be null");
@@ -40,6 +49,9 @@ public class ServerEntry {
         this.address = address;
         this.publicAddress = publicAddress;
         this.serverType = serverType;
+        this.compression = compression;
+        this.compressionLevel = compressionLevel;
+        this.dictionaryCompression = dictionaryCompression;
     }
 
     public String getServerName() {
@@ -58,6 +70,30 @@ public class ServerEntry {
         return this.serverType;
     }
 
+    public String getCompression() {
+        return this.compression;
+    }
+
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    public boolean isDictionaryCompression() {
+        return this.dictionaryCompression;
+    }
+
+    public CompressionType getCompressionType() {
+        if (this.compression == null || this.compression.isEmpty()) {
+            return null;
+        }
+
+        CompressionType compressionType = CompressionType.fromString(this.compression);
+        if (compressionType == null || compressionType.getBedrockAlgorithm() == null) {
+            throw new IllegalArgumentException("Unsupported compression " + this.compression + " for server " + this.serverName);
+        }
+        return compressionType;
+    }
+
     public ServerInfoType getServerInfoType() {
         ServerInfoType serverInfoType = ServerInfoType.fromString(this.serverType);
         if (serverInfoType == null) {
@@ -18,6 +18,7 @@ package dev.waterdog.waterdogpe.utils.config.proxy;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import net.cubespace.Yamler.Config.Comment;
+import net.cubespace.Yamler.Config.Comments;
 import net.cubespace.Yamler.Config.Path;
 import net.cubespace.Yamler.Config.YamlConfig;
 import org.cloudburstmc.netty.channel.raknet.RakConstants;
@@ -53,4 +54,108 @@ public class NetworkSettings extends YamlConfig {
     @Comment("Number of login requests that can be made in \"connection_throttle_time\" interval. To disable set value to -1")
     @Path("login_throttle")
     private int loginThrottle = 2;
+
+    @Comment("Number of threads used to verify login chains of connecting players")
+    @Path("login_verification_threads")
+    private int loginVerificationThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    @Comment("Maximum number of logins waiting for verification. Players above this limit are disconnected")
+    @Path("login_verification_queue")
+    private int loginVerificationQueue = 512;
+
+    @Path("packet_passthrough")
+    @Accessors(fluent = true)
+    @Comment("If enabled, packets which are not handled by the proxy nor by plugins are forwarded without being decoded")
+    private boolean packetPassthrough = true;
+
+    @Path("adaptive_flush")
+    @Accessors(fluent = true)
+    @Comments({
+            "If enabled, packets sent by the proxy are flushed at the end of the current read cycle,",
+            "when \"flush_max_packets\" are queued or after \"flush_max_delay\" instead of every 50ms"
+    })
+    private boolean adaptiveFlush = false;
+
+    @Path("flush_max_packets")
+    @Comment("Number of queued packets after which the queue is flushed immediately. Used only with \"adaptive_flush\"")
+    private int flushMaxPackets = 64;
+
+    @Path("flush_max_delay")
+    @Comment("Maximum time in milliseconds packets can wait in the queue. Used only with \"adaptive_flush\"")
+    private int flushMaxDelay = 10;
+
+    @Path("compression_offload")
+    @Accessors(fluent = true)
+    @Comment("If enabled, large batches are compressed by a dedicated thread pool instead of the network thread")
+    private boolean compressionOffload = false;
+
+    @Path("compression_offload_threshold")
+    @Comment("Minimal uncompressed size of a batch in bytes to be compressed by the thread pool")
+    private int compressionOffloadThreshold = 32768;
+
+    @Path("compression_offload_threads")
+    @Comment("Number of threads used to compress large batches. Used only with \"compression_offload\"")
+    private int compressionOffloadThreads = 2;
+
+    @Path("compression_offload_queue")
+    @Comment("Maximum number of batches waiting for compression. Batches above this limit are compressed by the network thread")
+    private int compressionOffloadQueue = 1024;
+
+    @Path("adaptive_compression")
+    @Accessors(fluent = true)
+    @Comments({
+            "If enabled, small or incompressible batches are sent uncompressed and zlib level is adjusted to \"adaptive_compression_budget\"",
+            "Level never exceeds the configured compression level. This is only applicable on 1.20.60 and newer versions"
+    })
+    private boolean adaptiveCompression = false;
+
+    @Path("adaptive_compression_threshold")
+    @Comment("Batches smaller than this size in bytes are sent uncompressed. Used only with \"adaptive_compression\"")
+    private int adaptiveCompressionThreshold = 128;
+
+    @Path("adaptive_compression_budget")
+    @Comment("Target compression time in nanoseconds per uncompressed byte. Used only with \"adaptive_compression\"")
+    private double adaptiveCompressionBudget = 20;
+
+    @Path("compression_dictionary")
+    @Comments({
+            "Path to preset dictionary used to compress packets sent to servers with \"dictionary_compression\" enabled",
+            "Dictionary can be trained from recorded batches using DictionaryTrainer from the benchmarks project"
+    })
+    private String compressionDictionary = "compression.dict";
+
+    @Path("downstream_event_loop_affinity")
+    @Accessors(fluent = true)
+    @Comment("If enabled, downstream connections use the same network thread as the player connection, so forwarded packets do not have to be passed between threads")
+    private boolean downstreamEventLoopAffinity = true;
+
+    @Path("flush_coalescing")
+    @Accessors(fluent = true)
+    @Comment("If enabled, packets forwarded while reading a burst of packets are flushed once at the end of the read. Requires \"downstream_event_loop_affinity\"")
+    private boolean flushCoalescing = true;
+
+    @Path("listener_shards")
+    @Comment("Number of listener channels bound to each address with SO_REUSEPORT (epoll only). 0 = number of CPU cores")
+    private int listenerShards = 0;
+
+    @Path("boss_threads")
+    @Comment("Number of RakNet listener threads. 0 = twice the number of CPU cores")
+    private int bossThreads = 0;
+
+    @Path("worker_threads")
+    @Comment("Number of threads handling player and downstream connections. 0 = twice the number of CPU cores")
+    private int workerThreads = 0;
+
+    @Path("cpu_affinity")
+    @Accessors(fluent = true)
+    @Comment("If enabled, network threads are pinned to CPU cores. Requires OpenHFT Java-Thread-Affinity library on the class path")
+    private boolean cpuAffinity = false;
+
+    @Path("ping_cache_interval")
+    @Comment("Time in milliseconds for which the ping response is reused before it is rebuilt. 0 = build the response for every ping")
+    private int pingCacheInterval = 1000;
+
+    @Path("query_cache_interval")
+    @Comment("Time in milliseconds for which the query response is reused before it is rebuilt. 0 = build the response for every query")
+    private int queryCacheInterval = 1000;
 }
@@ -17,6 +17,7 @@ package dev.waterdog.waterdogpe.utils.config.proxy;
 
 import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
+import dev.waterdog.waterdogpe.utils.MonitoredExecutor;
 import dev.waterdog.waterdogpe.utils.config.ServerList;
 import dev.waterdog.waterdogpe.utils.config.serializer.CompressionAlgorithmConverter;
 import dev.waterdog.waterdogpe.utils.config.serializer.InetSocketAddressConverter;
@@ -69,7 +70,10 @@ public class ProxyConfig extends YamlConfig {
     @Comments({
             "A list of all downstream servers that are available right after starting",
             "address field is formatted using ip:port",
-            "publicAddress is optional and can be set to the ip players can directly connect through"
+            "publicAddress is optional and can be set to the ip players can directly connect through",
+            "compression_level is optional and overrides downstream_compression_level for the server",
+            "compression is optional and forces algorithm used to send packets to the server (none, zlib, snappy), applicable on 1.20.60 and newer",
+            "dictionary_compression is optional and enables compression with \"compression_dictionary\", the server must use the same dictionary"
     })
     private ServerList serverList = new ServerList().initEmpty();
 
@@ -177,6 +181,22 @@ public class ProxyConfig extends YamlConfig {
     @Comment("Creating threads may be in some situations expensive. Specify minimum count of idle threads per internal thread executors. Set to -1 to auto-detect by core count.")
     private int defaultIdleThreads = -1;
 
+    @Path("executor_mode")
+    @Comments({
+            "Executor used by async events and async scheduler tasks. Supported values:",
+            "cached - unbounded thread pool, bounded - thread pool limited by executor_max_threads with queue of executor_queue_size tasks,",
+            "virtual - virtual thread per task, requires Java 21 or newer"
+    })
+    private String executorMode = "cached";
+
+    @Path("executor_max_threads")
+    @Comment("Maximum count of threads per executor in bounded mode. Set to -1 to use 4 threads per core.")
+    private int executorMaxThreads = -1;
+
+    @Path("executor_queue_size")
+    @Comment("Maximum count of queued tasks per executor in bounded mode. Once the queue is full, new tasks are rejected and logged.")
+    private int executorQueueSize = 1024;
+
     @Path("enable_statistics")
     @Comment("Enable anonymous statistics that are sent to bstats. For more information, check out our bstats page at https://bstats.org/plugin/server-implementation/WaterdogPE/15678")
     private boolean enableAnonymousStatistics = true;
@@ -201,4 +221,13 @@ public class ProxyConfig extends YamlConfig {
     public int getIdleThreads() {
         return this.defaultIdleThreads < 1 ? Runtime.getRuntime().availableProcessors() : this.defaultIdleThreads;
     }
+
+    public MonitoredExecutor.Mode getExecutorMode() {
+        MonitoredExecutor.Mode mode = MonitoredExecutor.Mode.fromString(this.executorMode);
+        return mode == null ? MonitoredExecutor.Mode.CACHED : mode;
+    }
+
+    public int getExecutorMaxThreads() {
+        return this.executorMaxThreads < 1 ? Runtime.getRuntime().availableProcessors() * 4 : this.executorMaxThreads;
+    }
 }
@@ -45,6 +45,15 @@ public class ServerEntryConverter implements Converter {
         if (serverEntry.getServerType() != null) {
             map.put("server_type", serverEntry.getServerType().toString());
         }
+        if (serverEntry.getCompression() != null) {
+            map.put("compression", serverEntry.getCompression());
+        }
+        if (serverEntry.getCompressionLevel() >= 0) {
+            map.put("compression_level", String.valueOf(serverEntry.getCompressionLevel()));
+        }
+        if (serverEntry.isDictionaryCompression()) {
+            map.put("dictionary_compression", "true");
+        }
         return map;
     }
 
@@ -63,7 +72,9 @@ public class ServerEntryConverter implements Converter {
             address = (InetSocketAddress) inetConverter.fromConfig(InetSocketAddress.class, section.get("address"), null);
             publicAddress = (InetSocketAddress) inetConverter.fromConfig(InetSocketAddress.class, section.get("public_address"), null);
             serverType = (String) inetConverter.fromConfig(String.class, section.get("server_type"), null);
-            return new ServerEntry(section.get("name"), address, publicAddress, this.validateServerType(serverType));
+            return new ServerEntry(section.get("name"), address, publicAddress, this.validateServerType(serverType),
+                    section.get("compression"), this.parseCompressionLevel(section.get("compression_level")),
+                    this.parseBoolean(section.get("dictionary_compression")));
         }
 
         if (object instanceof Map) {
@@ -72,7 +83,9 @@ public class ServerEntryConverter implements Converter {
                 address = (InetSocketAddress) inetConverter.fromConfig(InetSocketAddress.class, subMap.getValue().get("address"), null);
                 publicAddress = (InetSocketAddress) inetConverter.fromConfig(InetSocketAddress.class, subMap.getValue().get("public_address"), null);
                 serverType = (String) subMap.getValue().get("server_type");
-                return new ServerEntry(subMap.getKey(), address, publicAddress, this.validateServerType(serverType));
+                return new ServerEntry(subMap.getKey(), address, publicAddress, this.validateServerType(serverType),
+                        (String) subMap.getValue().get("compression"), this.parseCompressionLevel(subMap.getValue().get("compression_level")),
+                        this.parseBoolean(subMap.getValue().get("dictionary_compression")));
             }
         }
         throw new IllegalArgumentException("ServerInfoConverter#fromConfig cannot parse obj: " + object.getClass().getName());
@@ -85,6 +98,17 @@ public class ServerEntryConverter implements Converter {
         return serverType;
     }
 
+    private int parseCompressionLevel(Object level) {
+        if (level == null) {
+            return -1;
+        }
+        return level instanceof Number number ? number.intValue() : Integer.parseInt(level.toString());
+    }
+
+    private boolean parseBoolean(Object value) {
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+
     @Override
     public boolean supports(Class<?> type) {
         return ServerEntry.class.isAssignableFrom(type);
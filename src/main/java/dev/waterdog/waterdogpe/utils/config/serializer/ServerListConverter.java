@@ -50,6 +50,15 @@ public class ServerListConverter implements Converter {
                 if (serverEntry.getServerType() != null) {
                     map.put("server_type", serverEntry.getServerType().toString());
                 }
+                if (serverEntry.getCompression() != null) {
+                    map.put("compression", serverEntry.getCompression());
+                }
+                if (serverEntry.getCompressionLevel() >= 0) {
+                    map.put("compression_level", serverEntry.getCompressionLevel());
+                }
+                if (serverEntry.isDictionaryCompression()) {
+                    map.put("dictionary_compression", true);
+                }
             } catch (Exception e) {
                 throw new RuntimeException("ServerListConverter#toConfig converter.toConfig threw exception", e);
             }